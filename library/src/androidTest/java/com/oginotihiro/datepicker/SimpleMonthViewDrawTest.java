@@ -0,0 +1,65 @@
+package com.oginotihiro.datepicker;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Debug;
+import android.test.AndroidTestCase;
+import android.view.View;
+
+import java.util.Calendar;
+
+/**
+ * Steady state {@link SimpleMonthView#onDraw} must not allocate, a month is
+ * redrawn on every frame of a scroll.
+ */
+public class SimpleMonthViewDrawTest extends AndroidTestCase {
+    private static final int WIDTH = 1080;
+    private static final int WARM_UP_DRAWS = 20;
+    private static final int COUNTED_DRAWS = 200;
+
+    public void testSteadyStateDraw_doesNotAllocate() throws Exception {
+        SimpleMonthView view = newMonthView();
+        assertEquals(0, countDrawAllocations(view));
+    }
+
+    public void testSteadyStateDrawFromRenderCache_doesNotAllocate() throws Exception {
+        SimpleMonthView view = newMonthView();
+        view.setRenderCache(MonthRenderCache.getInstance(4 * 1024 * 1024));
+        assertEquals(0, countDrawAllocations(view));
+    }
+
+    private SimpleMonthView newMonthView() {
+        SimpleMonthView view = new SimpleMonthView(getContext(), Color.BLUE);
+        view.bind(2016, Calendar.MARCH, 15, Calendar.SUNDAY);
+        view.setHighlightedDays(MonthMaskSet.bit(8) | MonthMaskSet.bit(22));
+        view.setSelectedDays(MonthMaskSet.bit(3));
+        view.setRange(CalendarMath.toEpochDay(2016, Calendar.MARCH, 10), CalendarMath.toEpochDay(2016, Calendar.MARCH, 18));
+        view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        return view;
+    }
+
+    private static int countDrawAllocations(SimpleMonthView view) {
+        Bitmap bitmap = Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+
+        // the first draws fill the text and layer caches
+        for (int i = 0; i < WARM_UP_DRAWS; i++) {
+            view.draw(canvas);
+        }
+
+        Debug.startAllocCounting();
+        try {
+            Debug.resetThreadAllocCount();
+            for (int i = 0; i < COUNTED_DRAWS; i++) {
+                view.draw(canvas);
+            }
+            return Debug.getThreadAllocCount();
+        } finally {
+            Debug.stopAllocCounting();
+            bitmap.recycle();
+        }
+    }
+}
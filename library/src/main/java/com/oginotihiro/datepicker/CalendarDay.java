@@ -16,46 +16,108 @@
 package com.oginotihiro.datepicker;
 
 import java.util.Calendar;
+import java.util.TimeZone;
 
-public class CalendarDay {
-	protected int year;
-	protected int month;
-	protected int day;
+/**
+ * Immutable day, packed into one int as (year << 9) | (month << 5) | day so
+ * equality, hashing and ordering are plain int operations. Month is 0 based
+ * like Calendar.MONTH.
+ *
+ * {@link #of(int, int, int)} hands out shared instances for recently used days.
+ * Days outside 1-01-01 to 9999-12-31 or past the end of their month are
+ * rejected with an IllegalArgumentException, so no two dates share a packing.
+ */
+public final class CalendarDay implements Comparable<CalendarDay> {
+	private static final int YEAR_SHIFT = 9;
+	private static final int MONTH_SHIFT = 5;
+	private static final int MONTH_MASK = 0x0F;
+	private static final int DAY_MASK = 0x1F;
+	private static final int CACHE_SIZE = 64;
+
+	// direct-mapped, a racing write only costs a duplicate instance
+	private static final CalendarDay[] sCache = new CalendarDay[CACHE_SIZE];
+
+	private final int mPacked;
 
 	public CalendarDay() {
-		setTime(System.currentTimeMillis());
+		this(System.currentTimeMillis());
 	}
 
 	public CalendarDay(long timeInMillis) {
-		setTime(timeInMillis);
+		this(CalendarMath.toYearMonthDay(CalendarMath.toEpochDay(timeInMillis, TimeZone.getDefault())));
+	}
+
+	public CalendarDay(int year, int month, int day) {
+		this(pack(year, month, day));
 	}
 
-	private void setTime(long timeInMillis) {
-		Calendar calendar = Calendar.getInstance();
-		calendar.setTimeInMillis(timeInMillis);
+	public CalendarDay(Calendar calendar) {
+		this(pack(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH)));
+	}
 
-		setDay(calendar.get(Calendar.YEAR),
-				calendar.get(Calendar.MONTH),
-				calendar.get(Calendar.DAY_OF_MONTH));
+	private CalendarDay(int packed) {
+		mPacked = packed;
 	}
 
-	public CalendarDay(int year, int month, int day) {
-		setDay(year, month, day);
+	public static CalendarDay of(int year, int month, int day) {
+		return ofPacked(pack(year, month, day));
 	}
 
-	public CalendarDay(Calendar calendar) {
-		setDay(calendar.get(Calendar.YEAR),
-				calendar.get(Calendar.MONTH),
-				calendar.get(Calendar.DAY_OF_MONTH));
+	public static CalendarDay ofEpochDay(int epochDay) {
+		return ofPacked(CalendarMath.toYearMonthDay(epochDay));
+	}
+
+	private static CalendarDay ofPacked(int packed) {
+		int index = (packed ^ (packed >>> YEAR_SHIFT)) & (CACHE_SIZE - 1);
+		CalendarDay calendarDay = sCache[index];
+		if (calendarDay == null || calendarDay.mPacked != packed) {
+			calendarDay = new CalendarDay(packed);
+			sCache[index] = calendarDay;
+		}
+		return calendarDay;
+	}
+
+	public int getYear() {
+		return mPacked >> YEAR_SHIFT;
+	}
+
+	public int getMonth() {
+		return (mPacked >> MONTH_SHIFT) & MONTH_MASK;
+	}
+
+	public int getDay() {
+		return mPacked & DAY_MASK;
+	}
+
+	public int toEpochDay() {
+		return CalendarMath.toEpochDay(getYear(), getMonth(), getDay());
+	}
+
+	@Override
+	public int compareTo(CalendarDay another) {
+		return mPacked < another.mPacked ? -1 : (mPacked == another.mPacked ? 0 : 1);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof CalendarDay && ((CalendarDay) o).mPacked == mPacked;
+	}
+
+	@Override
+	public int hashCode() {
+		return mPacked;
 	}
 
-	public void set(CalendarDay calendarDay) {
-		setDay(calendarDay.year, calendarDay.month, calendarDay.day);
+	@Override
+	public String toString() {
+		return getYear() + "-" + (getMonth() + 1) + "-" + getDay();
 	}
 
-	public void setDay(int year, int month, int day) {
-		this.year = year;
-		this.month = month;
-		this.day = day;
+	private static int pack(int year, int month, int day) {
+		// getDaysInMonth rejects the year and month
+		if (day < 1 || day > MonthLayout.getDaysInMonth(year, month)) {
+			throw new IllegalArgumentException("Invalid Day");
+		}
+		return (year << YEAR_SHIFT) | (month << MONTH_SHIFT) | day;
 	}
-}
\ No newline at end of file
+}
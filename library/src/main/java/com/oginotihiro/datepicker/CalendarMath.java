@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.TimeZone;
+
+/**
+ * Proleptic Gregorian date arithmetic on plain ints. Months are 0 based
+ * like Calendar.MONTH, days of week are Calendar.SUNDAY - Calendar.SATURDAY
+ * and epoch day 0 is 1970-01-01.
+ *
+ * Nothing here allocates or locks, so it is safe and cheap on any thread,
+ * unlike java.util.Calendar.
+ */
+final class CalendarMath {
+	/** Stands for "no day" wherever an epoch day is expected. */
+	static final int NO_EPOCH_DAY = Integer.MIN_VALUE;
+
+	private static final int DAYS_PER_ERA = 146097;
+	private static final int EPOCH_SHIFT = 719468;
+	private static final int YEAR_SHIFT = 9;
+	private static final int MONTH_SHIFT = 5;
+	private static final int MONTH_MASK = 0x0F;
+	private static final int DAY_MASK = 0x1F;
+	private static final long DAY_IN_MILLIS = 24L * 60 * 60 * 1000;
+	private static final int DAYS_IN_WEEK = 7;
+	// 1970-01-01 was a Thursday
+	private static final int EPOCH_DAY_OF_WEEK_SHIFT = 4;
+
+	private CalendarMath() {}
+
+	static int toEpochDay(int year, int month, int day) {
+		// years start in March so the leap day is the last day of the year
+		int y = month < 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yearOfEra = y - era * 400;
+		int monthFromMarch = (month + 10) % 12;
+		int dayOfYear = (153 * monthFromMarch + 2) / 5 + day - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * DAYS_PER_ERA + dayOfEra - EPOCH_SHIFT;
+	}
+
+	/**
+	 * The local epoch day of a point in time.
+	 */
+	static int toEpochDay(long timeInMillis, TimeZone timeZone) {
+		long localMillis = timeInMillis + timeZone.getOffset(timeInMillis);
+		long day = localMillis / DAY_IN_MILLIS;
+		return (int) (localMillis % DAY_IN_MILLIS < 0 ? day - 1 : day);
+	}
+
+	static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	static int getDaysInMonth(int year, int month) {
+		switch (month) {
+		case 1:
+			return isLeapYear(year) ? 29 : 28;
+		case 3:
+		case 5:
+		case 8:
+		case 10:
+			return 30;
+		default:
+			if (month < 0 || month > 11) {
+				throw new IllegalArgumentException("Invalid Month");
+			}
+			return 31;
+		}
+	}
+
+	static int getDayOfWeek(int epochDay) {
+		int shifted = (epochDay + EPOCH_DAY_OF_WEEK_SHIFT) % DAYS_IN_WEEK;
+		return (shifted < 0 ? shifted + DAYS_IN_WEEK : shifted) + 1;
+	}
+
+	static int getDayOfWeek(int year, int month, int day) {
+		return getDayOfWeek(toEpochDay(year, month, day));
+	}
+
+	static int getYear(int epochDay) {
+		return toYearMonthDay(epochDay) >> YEAR_SHIFT;
+	}
+
+	static int getMonth(int epochDay) {
+		return (toYearMonthDay(epochDay) >> MONTH_SHIFT) & MONTH_MASK;
+	}
+
+	static int getDayOfMonth(int epochDay) {
+		return toYearMonthDay(epochDay) & DAY_MASK;
+	}
+
+	/**
+	 * (year << 9) | (month << 5) | day, the packing {@link CalendarDay} uses.
+	 */
+	static int toYearMonthDay(int epochDay) {
+		int z = epochDay + EPOCH_SHIFT;
+		int era = (z >= 0 ? z : z - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+		int dayOfEra = z - era * DAYS_PER_ERA;
+		int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / (DAYS_PER_ERA - 1)) / 365;
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int monthFromMarch = (5 * dayOfYear + 2) / 153;
+		int day = dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+		int month = (monthFromMarch + 2) % 12;
+		int year = yearOfEra + era * 400 + (month < 2 ? 1 : 0);
+		return (year << YEAR_SHIFT) | (month << MONTH_SHIFT) | day;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+/**
+ * What changed between two notifications of {@link DatePickerDialog.OnDateChangedListener},
+ * so a listener can skip the work the change doesn't need.
+ */
+public final class DateChangeEvent {
+	public static final int DAY = 1;
+	public static final int MONTH = 1 << 1;
+	public static final int YEAR = 1 << 2;
+	public static final int RANGE = 1 << 3;
+	public static final int SELECTED_DAYS = 1 << 4;
+	public static final int ALL = DAY | MONTH | YEAR | RANGE | SELECTED_DAYS;
+
+	private final CalendarDay mOldDay;
+	private final CalendarDay mNewDay;
+	private final int mChangedFields;
+
+	/**
+	 * @param otherChangedFields changes beyond the selected day, like {@link #RANGE}
+	 */
+	DateChangeEvent(CalendarDay oldDay, CalendarDay newDay, int otherChangedFields) {
+		mOldDay = oldDay;
+		mNewDay = newDay;
+
+		int changed = otherChangedFields;
+		if (oldDay.getDay() != newDay.getDay()) {
+			changed |= DAY;
+		}
+		if (oldDay.getMonth() != newDay.getMonth()) {
+			changed |= MONTH;
+		}
+		if (oldDay.getYear() != newDay.getYear()) {
+			changed |= YEAR;
+		}
+		mChangedFields = changed;
+	}
+
+	/**
+	 * An event asking for a full refresh, e.g. when a picker is shown.
+	 */
+	static DateChangeEvent refresh(CalendarDay day) {
+		return new DateChangeEvent(day, day, ALL);
+	}
+
+	public CalendarDay getOldDay() {
+		return mOldDay;
+	}
+
+	public CalendarDay getNewDay() {
+		return mNewDay;
+	}
+
+	public int getChangedFields() {
+		return mChangedFields;
+	}
+
+	/**
+	 * @return true if any of the given fields changed
+	 */
+	public boolean hasChanged(int fields) {
+		return (mChangedFields & fields) != 0;
+	}
+}
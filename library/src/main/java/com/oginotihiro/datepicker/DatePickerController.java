@@ -22,17 +22,60 @@ interface DatePickerController {
 
 	int getFirstDayOfWeek();
 
-	CalendarDay getSelectedDay();
+	int getSelectedYear();
+
+	int getSelectedMonth();
+
+	int getSelectedDayOfMonth();
 
 	int getColor();
 
 	int getDarkColor();
 
+	MonthRenderCache getRenderCache();
+
+	/**
+	 * Every month is six rows high, so month offsets are plain arithmetic.
+	 */
+	boolean isUniformMonthHeight();
+
+	/**
+	 * Bit (day - 1) is set for every disabled day of the month.
+	 */
+	int getDisabledDayMask(int year, int month);
+
+	/**
+	 * Bit (day - 1) is set for every highlighted day of the month.
+	 */
+	int getHighlightedDayMask(int year, int month);
+
+	DayDecorationProvider getDayDecorationProvider();
+
+	/**
+	 * First epoch day of the selected range, CalendarMath.NO_EPOCH_DAY outside range mode or before a day was picked.
+	 */
+	int getRangeStart();
+
+	/**
+	 * Last epoch day of the selected range, inclusive.
+	 */
+	int getRangeEnd();
+
+	boolean isMultiSelection();
+
+	/**
+	 * Whether taps pick a range, which is drawn in place of the selected day.
+	 */
+	boolean isRangeMode();
+
+	/**
+	 * Bit (day - 1) is set for every day picked in multi selection mode.
+	 */
+	int getSelectedDayMask(int year, int month);
+
 	void tryVibrate();
 
 	void onDayOfMonthSelected(int year, int month, int day);
 
 	void onYearSelected(int year);
-
-	void registerOnDateChangedListener(DatePickerDialog.OnDateChangedListener onDateChangedListener);
 }
\ No newline at end of file
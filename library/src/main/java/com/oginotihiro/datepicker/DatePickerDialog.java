@@ -15,12 +15,9 @@
  */
 package com.oginotihiro.datepicker;
 
-import java.text.DateFormatSymbols;
-import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Locale;
+import java.util.TimeZone;
 
 import com.nineoldandroids.animation.ObjectAnimator;
 import android.app.Activity;
@@ -33,6 +30,7 @@ import android.os.Bundle;
 import android.os.SystemClock;
 import android.os.Vibrator;
 import android.support.v4.app.DialogFragment;
+import android.support.v7.widget.RecyclerView;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -60,12 +58,23 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 	private static final String KEY_VIBRATE = "vibrate";
 	private static final String KEY_COLOR = "color";
 	private static final String KEY_DARK_COLOR = "dark_color";
+	private static final String KEY_RENDER_CACHE_SIZE = "render_cache_size";
+	private static final String KEY_RECYCLER_MONTH_LIST = "recycler_month_list";
+	private static final String KEY_UNIFORM_MONTH_HEIGHT = "uniform_month_height";
+	private static final String KEY_RANGE_MODE = "range_mode";
+	private static final String KEY_RANGE_START = "range_start";
+	private static final String KEY_RANGE_END = "range_end";
+	private static final String KEY_MULTI_SELECTION = "multi_selection";
+	private static final String KEY_SELECTED_DAYS = "selected_days";
+	private static final String KEY_DISABLED_DAYS = "disabled_days";
 
 	private static final int DEFAULT_COLOR = 0xFFF44336;
 	private static final int DEFAULT_DARK_COLOR = 0xFFB71C1C;
 
-	private static final int MAX_YEAR = 2037;
-	private static final int MIN_YEAR = 1902;
+	private static final int MAX_YEAR = MonthLayout.MAX_YEAR;
+	private static final int MIN_YEAR = MonthLayout.MIN_YEAR;
+	private static final int DEFAULT_MAX_YEAR = 2037;
+	private static final int DEFAULT_MIN_YEAR = 1902;
 
 	private static final int UNINITIALIZED = -1;
 	private static final int MONTH_AND_DAY_VIEW = 0;
@@ -77,19 +86,50 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 		void onDateSet(DatePickerDialog dialog, int year, int monthOfYear, int dayOfMonth);
 	}
 
-	public interface OnDateChangedListener {
-		void onDateChanged();
+	public interface OnDateRangeSetListener {
+		void onDateRangeSet(DatePickerDialog dialog, int startYear, int startMonthOfYear, int startDayOfMonth,
+				int endYear, int endMonthOfYear, int endDayOfMonth);
 	}
 
-	private OnDateSetListener mCallBack;
+	/**
+	 * Read the picked days with {@link DatePickerDialog#forEachSelectedDay(DayVisitor)}.
+	 */
+	public interface OnDatesSetListener {
+		void onDatesSet(DatePickerDialog dialog);
+	}
 
-	private HashSet<OnDateChangedListener> mListeners = new HashSet<OnDateChangedListener>();
+	public interface OnDateChangedListener {
+		void onDateChanged(DateChangeEvent event);
+	}
 
-	private final Calendar mCalendar = Calendar.getInstance();
+	private OnDateSetListener mCallBack;
+	private OnDateRangeSetListener mRangeCallBack;
+	private OnDatesSetListener mDatesCallBack;
+
+	private boolean mRangeMode;
+	private int mRangeStart = CalendarMath.NO_EPOCH_DAY;
+	private int mRangeEnd = CalendarMath.NO_EPOCH_DAY;
+
+	private boolean mMultiSelection;
+	private final MonthMaskSet mSelectedDays = new MonthMaskSet();
+
+	private final WeakListenerList<OnDateChangedListener> mListeners = new WeakListenerList<OnDateChangedListener>();
+	// the pickers of the current view, held strongly until onDestroyView
+	private final ArrayList<OnDateChangedListener> mViewListeners = new ArrayList<OnDateChangedListener>();
+
+	// state the listeners were last told about
+	private CalendarDay mNotifiedDay;
+	private int mNotifiedRangeStart;
+	private int mNotifiedRangeEnd;
+
+	private int mSelectedYear;
+	private int mSelectedMonth;
+	private int mSelectedDayOfMonth;
+	private final MonthMaskSet mDisabledDays = new MonthMaskSet();
+	private DayRule mEnabledDayRule;
+	private DayRule mHighlightedDayRule;
+	private DayDecorationProvider mDayDecorationProvider;
 	private Vibrator mVibrator;
-	private DateFormatSymbols mDateFormatSymbols = new DateFormatSymbols();
-	private static SimpleDateFormat DAY_FORMAT = new SimpleDateFormat("dd", Locale.getDefault());
-	private static SimpleDateFormat YEAR_FORMAT = new SimpleDateFormat("yyyy", Locale.getDefault());
 
 	private boolean mVibrate = true;
     private long mLastVibrate;
@@ -99,11 +139,17 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 
     private boolean mCloseOnSingleTapDay;
 
+    private int mRenderCacheSize;
+
+	private boolean mRecyclerMonthList;
+	private RecyclerView.RecycledViewPool mMonthViewPool;
+	private boolean mUniformMonthHeight;
+
 	private boolean mDelayAnimation = true;
 
-    private int mMaxYear = MAX_YEAR;
-    private int mMinYear = MIN_YEAR;
-	private int mWeekStart = mCalendar.getFirstDayOfWeek();
+    private int mMaxYear = DEFAULT_MAX_YEAR;
+    private int mMinYear = DEFAULT_MIN_YEAR;
+	private int mWeekStart = Calendar.getInstance().getFirstDayOfWeek();
 
 	private int mCurrentView = UNINITIALIZED;
 
@@ -114,10 +160,13 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 	private TextView mSelectedYearTv;
 	private ViewAnimator mAnimator;
 	private YearPickerView mYearPickerView;
-	private DayPickerView mDayPickerView;
+	private MonthListView mDayPickerView;
 	private Button mDoneButton;
 
-	public DatePickerDialog() {}
+	public DatePickerDialog() {
+		int today = CalendarMath.toEpochDay(System.currentTimeMillis(), TimeZone.getDefault());
+		setSelectedDay(CalendarMath.getYear(today), CalendarMath.getMonth(today), CalendarMath.getDayOfMonth(today));
+	}
 
 	public static DatePickerDialog newInstance(OnDateSetListener onDateSetListener, int year, int monthOfYear, int dayOfMonth) {
 		return newInstance(onDateSetListener, year, monthOfYear, dayOfMonth, true, DEFAULT_COLOR, DEFAULT_DARK_COLOR);
@@ -139,15 +188,17 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 
 	public void initialize(OnDateSetListener onDateSetListener, int year, int monthOfYear, int dayOfMonth, boolean vibrate, int color, int darkColor) {
 		if (year > MAX_YEAR)
-			throw new IllegalArgumentException("year end must < " + MAX_YEAR);
+			throw new IllegalArgumentException("year must be <= " + MAX_YEAR);
 		if (year < MIN_YEAR)
-			throw new IllegalArgumentException("year end must > " + MIN_YEAR);
+			throw new IllegalArgumentException("year must be >= " + MIN_YEAR);
+		checkDay(year, monthOfYear, dayOfMonth);
 
 		mCallBack = onDateSetListener;
 
-		mCalendar.set(Calendar.YEAR, year);
-		mCalendar.set(Calendar.MONTH, monthOfYear);
-		mCalendar.set(Calendar.DAY_OF_MONTH, dayOfMonth);
+		setSelectedDay(year, monthOfYear, dayOfMonth);
+		// the default range only covers the old 32 bit time_t years, grow it to reach the initial date
+		mMinYear = Math.min(mMinYear, year);
+		mMaxYear = Math.max(mMaxYear, year);
 
 		mVibrate = vibrate;
 
@@ -159,6 +210,89 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
         mCallBack = onDateSetListener;
     }
 
+	/**
+	 * Switches the picker to range mode: the first tap starts a range, the next later day ends it.
+	 */
+	public void setOnDateRangeSetListener(OnDateRangeSetListener onDateRangeSetListener) {
+		mRangeCallBack = onDateRangeSetListener;
+		mRangeMode = true;
+		mMultiSelection = false;
+	}
+
+	/**
+	 * Switches the picker to multi selection mode: every tap adds or removes a day.
+	 */
+	public void setOnDatesSetListener(OnDatesSetListener onDatesSetListener) {
+		mDatesCallBack = onDatesSetListener;
+		mMultiSelection = true;
+		mRangeMode = false;
+	}
+
+	public void setDaySelected(int year, int monthOfYear, int dayOfMonth, boolean selected) {
+		checkDay(year, monthOfYear, dayOfMonth);
+		boolean changed = selected
+				? mSelectedDays.add(year, monthOfYear, dayOfMonth)
+				: mSelectedDays.remove(year, monthOfYear, dayOfMonth);
+		if (changed) {
+			onSelectedDaysChanged();
+		}
+	}
+
+	/**
+	 * Replaces the picked days of one month at once, bit (day - 1) of mask is set for each picked day.
+	 */
+	public void setSelectedDayMask(int year, int monthOfYear, int mask) {
+		checkMask(year, monthOfYear, mask);
+		if (mSelectedDays.getMask(year, monthOfYear) != mask) {
+			mSelectedDays.setMask(year, monthOfYear, mask);
+			onSelectedDaysChanged();
+		}
+	}
+
+	public void clearSelectedDays() {
+		mSelectedDays.clear();
+		onSelectedDaysChanged();
+	}
+
+	public boolean isDaySelected(int year, int monthOfYear, int dayOfMonth) {
+		return mSelectedDays.contains(year, monthOfYear, dayOfMonth);
+	}
+
+	public int getSelectedDayCount() {
+		return mSelectedDays.size();
+	}
+
+	/**
+	 * Visits the picked days in ascending order.
+	 */
+	public void forEachSelectedDay(DayVisitor visitor) {
+		mSelectedDays.forEach(visitor);
+	}
+
+	private void onSelectedDaysChanged() {
+		if (mDayPickerView != null) {
+			mDayPickerView.onSelectedDaysChanged();
+		}
+	}
+
+	public void setDateRange(int startYear, int startMonthOfYear, int startDayOfMonth,
+			int endYear, int endMonthOfYear, int endDayOfMonth) {
+		checkDay(startYear, startMonthOfYear, startDayOfMonth);
+		checkDay(endYear, endMonthOfYear, endDayOfMonth);
+		int start = CalendarMath.toEpochDay(startYear, startMonthOfYear, startDayOfMonth);
+		int end = CalendarMath.toEpochDay(endYear, endMonthOfYear, endDayOfMonth);
+		if (end < start) {
+			throw new IllegalArgumentException("range end must not be before its start");
+		}
+		mRangeMode = true;
+		mMultiSelection = false;
+		mRangeStart = start;
+		mRangeEnd = end;
+		if (mDayPickerView != null) {
+			updatePickers();
+		}
+	}
+
 	public void setVibrate(boolean vibrate) {
 		mVibrate = vibrate;
 	}
@@ -175,13 +309,139 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 		mCloseOnSingleTapDay = closeOnSingleTapDay;
 	}
 
+	/**
+	 * Draws the static part of each month once into a bitmap and reuses it
+	 * while scrolling. The bitmaps are shared by all pickers in the process,
+	 * maxBytes bounds their total size, 0 turns the cache off (the default).
+	 */
+	public void setRenderCacheSize(int maxBytes) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Render cache size must be >= 0");
+		}
+		mRenderCacheSize = maxBytes;
+	}
+
+	/**
+	 * Makes every month six rows high, shorter months end with empty rows.
+	 * The position of any month is then known without laying it out, which
+	 * keeps snapping, jumps and the restored scroll position exact.
+	 */
+	public void setUniformMonthHeight(boolean uniformMonthHeight) {
+		mUniformMonthHeight = uniformMonthHeight;
+		if (mDayPickerView != null) {
+			mDayPickerView.onChanged();
+		}
+	}
+
+	/**
+	 * Shows the months in a {@link MonthRecyclerView} instead of a ListView.
+	 * The next months are created and bound while the main thread is idle, and
+	 * the month views may come from a pool shared with other pickers.
+	 *
+	 * @param pool shared by the pickers of one activity, or null for a pool per picker
+	 */
+	public void setRecyclerMonthList(boolean recyclerMonthList, RecyclerView.RecycledViewPool pool) {
+		mRecyclerMonthList = recyclerMonthList;
+		mMonthViewPool = pool;
+	}
+
+	public void setDayDisabled(int year, int monthOfYear, int dayOfMonth, boolean disabled) {
+		checkDay(year, monthOfYear, dayOfMonth);
+		boolean changed = disabled
+				? mDisabledDays.add(year, monthOfYear, dayOfMonth)
+				: mDisabledDays.remove(year, monthOfYear, dayOfMonth);
+		if (changed) {
+			onDisabledDaysChanged();
+		}
+	}
+
+	/**
+	 * Replaces every disabled day of one month at once, bit (day - 1) of mask is set for each disabled day.
+	 */
+	public void setDisabledDayMask(int year, int monthOfYear, int mask) {
+		checkMask(year, monthOfYear, mask);
+		if (mDisabledDays.getMask(year, monthOfYear) != mask) {
+			mDisabledDays.setMask(year, monthOfYear, mask);
+			onDisabledDaysChanged();
+		}
+	}
+
+	/**
+	 * Replaces all disabled days. Nothing changes if one of the days is invalid.
+	 */
+	public void setDisabledDays(Iterable<CalendarDay> days) {
+		MonthMaskSet disabledDays = new MonthMaskSet();
+		for (CalendarDay day : days) {
+			checkDay(day.getYear(), day.getMonth(), day.getDay());
+			disabledDays.add(day.getYear(), day.getMonth(), day.getDay());
+		}
+		mDisabledDays.clear();
+		mDisabledDays.setEpochDays(disabledDays.toEpochDays(), true);
+		onDisabledDaysChanged();
+	}
+
+	private static void checkDay(int year, int monthOfYear, int dayOfMonth) {
+		// getDaysInMonth rejects the year and month
+		if (dayOfMonth < 1 || dayOfMonth > MonthLayout.getDaysInMonth(year, monthOfYear)) {
+			throw new IllegalArgumentException("Invalid Day");
+		}
+	}
+
+	private static void checkMask(int year, int monthOfYear, int mask) {
+		if ((mask & ~DayRule.allDaysMask(MonthLayout.getDaysInMonth(year, monthOfYear))) != 0) {
+			throw new IllegalArgumentException("Mask has days past the end of the month");
+		}
+	}
+
+	public void clearDisabledDays() {
+		mDisabledDays.clear();
+		onDisabledDaysChanged();
+	}
+
+	/**
+	 * Only days matching rule can be picked, on top of the explicitly disabled days. null enables every day.
+	 */
+	public void setEnabledDays(DayRule rule) {
+		mEnabledDayRule = rule;
+		onDisabledDaysChanged();
+	}
+
+	/**
+	 * Days matching rule get a dot under their number. null removes the highlights.
+	 */
+	public void setHighlightedDays(DayRule rule) {
+		mHighlightedDayRule = rule;
+		onDisabledDaysChanged();
+	}
+
+	/**
+	 * Labels or dots under the day numbers, loaded from provider in the background as months are shown.
+	 * Setting the same provider again reloads the shown months. null removes the decorations.
+	 */
+	public void setDayDecorationProvider(DayDecorationProvider provider) {
+		mDayDecorationProvider = provider;
+		if (mDayPickerView != null) {
+			mDayPickerView.onDayDecorationProviderChanged();
+		}
+	}
+
+	public boolean isDayDisabled(int year, int monthOfYear, int dayOfMonth) {
+		return (getDisabledDayMask(year, monthOfYear) & MonthMaskSet.bit(dayOfMonth)) != 0;
+	}
+
+	private void onDisabledDaysChanged() {
+		if (mDayPickerView != null) {
+			mDayPickerView.onDayStatesChanged();
+		}
+	}
+
 	public void setYearRange(int minYear, int maxYear) {
 		if (maxYear < minYear)
 			throw new IllegalArgumentException("Year end must be larger than year start");
 		if (maxYear > MAX_YEAR)
-			throw new IllegalArgumentException("max year end must < " + MAX_YEAR);
+			throw new IllegalArgumentException("max year must be <= " + MAX_YEAR);
 		if (minYear < MIN_YEAR)
-			throw new IllegalArgumentException("min year end must > " + MIN_YEAR);
+			throw new IllegalArgumentException("min year must be >= " + MIN_YEAR);
 		mMinYear = minYear;
 		mMaxYear = maxYear;
 		if (mDayPickerView != null) {
@@ -208,9 +468,9 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 		mVibrator = (Vibrator) activity.getSystemService(Context.VIBRATOR_SERVICE);
 
 		if (savedInstanceState != null) {
-			mCalendar.set(Calendar.YEAR, savedInstanceState.getInt(KEY_SELECTED_YEAR));
-			mCalendar.set(Calendar.MONTH, savedInstanceState.getInt(KEY_SELECTED_MONTH));
-			mCalendar.set(Calendar.DAY_OF_MONTH, savedInstanceState.getInt(KEY_SELECTED_DAY));
+			setSelectedDay(savedInstanceState.getInt(KEY_SELECTED_YEAR),
+					savedInstanceState.getInt(KEY_SELECTED_MONTH),
+					savedInstanceState.getInt(KEY_SELECTED_DAY));
 
 			mMinYear = savedInstanceState.getInt(KEY_YEAR_START);
 			mMaxYear = savedInstanceState.getInt(KEY_YEAR_END);
@@ -219,6 +479,21 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 			mVibrate = savedInstanceState.getBoolean(KEY_VIBRATE);
 			mColor = savedInstanceState.getInt(KEY_COLOR);
 			mDarkColor = savedInstanceState.getInt(KEY_DARK_COLOR);
+			mRenderCacheSize = savedInstanceState.getInt(KEY_RENDER_CACHE_SIZE);
+			mRecyclerMonthList = savedInstanceState.getBoolean(KEY_RECYCLER_MONTH_LIST);
+			mUniformMonthHeight = savedInstanceState.getBoolean(KEY_UNIFORM_MONTH_HEIGHT);
+			mRangeMode = savedInstanceState.getBoolean(KEY_RANGE_MODE);
+			mRangeStart = savedInstanceState.getInt(KEY_RANGE_START, CalendarMath.NO_EPOCH_DAY);
+			mRangeEnd = savedInstanceState.getInt(KEY_RANGE_END, CalendarMath.NO_EPOCH_DAY);
+			mMultiSelection = savedInstanceState.getBoolean(KEY_MULTI_SELECTION);
+			int[] selectedDays = savedInstanceState.getIntArray(KEY_SELECTED_DAYS);
+			if (selectedDays != null) {
+				mSelectedDays.setEpochDays(selectedDays, true);
+			}
+			int[] disabledDays = savedInstanceState.getIntArray(KEY_DISABLED_DAYS);
+			if (disabledDays != null) {
+				mDisabledDays.setEpochDays(disabledDays, true);
+			}
 		}
 	}
 
@@ -248,16 +523,7 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 		mSelectedYearTv = (TextView) view.findViewById(R.id.date_picker_year);
 		mSelectedYearTv.setOnClickListener(this);
 
-		int[][] states = new int[][]{
-				new int[]{-android.R.attr.state_pressed, -android.R.attr.state_selected},
-				new int[]{-android.R.attr.state_pressed, android.R.attr.state_selected},
-				new int[]{android.R.attr.state_pressed}
-		};
-		int[] colors = new int[]{
-				getResources().getColor(R.color.date_picker_text_normal),
-				mColor, mDarkColor
-		};
-		ColorStateList csl = new ColorStateList(states, colors);
+		ColorStateList csl = YearLabelPalette.get(getActivity(), mColor, mDarkColor).headerTextColors;
 
 		mSelectedMonthTv.setTextColor(csl);
 		mSelectedDayTv.setTextColor(csl);
@@ -265,10 +531,12 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 
 		Activity activity = getActivity();
         mYearPickerView = new YearPickerView(activity, this);
-        mDayPickerView = new DayPickerView(activity, this);
+        mDayPickerView = mRecyclerMonthList ? new MonthRecyclerView(activity, this, mMonthViewPool) : new DayPickerView(activity, this);
+		registerViewListener(mYearPickerView);
+		registerViewListener(mDayPickerView);
 
 		mAnimator = (ViewAnimator) view.findViewById(R.id.animator);
-		mAnimator.addView(mDayPickerView);
+		mAnimator.addView((View) mDayPickerView);
 		mAnimator.addView(mYearPickerView);
 
 		AlphaAnimation inAlphaAnimation = new AlphaAnimation(0.0F, 1.0F);
@@ -292,6 +560,7 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 			mDoneButton.setBackground(sld);
 		}
 
+		markPickersUpdated();
 		updateDisplay();
 		setCurrentView(currentView, true);
 
@@ -306,25 +575,59 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 		return view;
 	}
 
+	@Override
+	public void onDestroyView() {
+		super.onDestroyView();
+		// the pickers are rebuilt by the next onCreateView, don't keep the old ones around
+		releaseViewListeners();
+		mDayPickerView = null;
+		mYearPickerView = null;
+	}
+
 	private void updateDisplay() {
 		if (this.mDayOfWeekView != null) {
-			this.mCalendar.setFirstDayOfWeek(mWeekStart);
-			this.mDayOfWeekView.setText(mDateFormatSymbols.getWeekdays()[this.mCalendar.get(Calendar.DAY_OF_WEEK)].toUpperCase(Locale.getDefault()));
+			int dayOfWeek = CalendarMath.getDayOfWeek(mSelectedYear, mSelectedMonth, mSelectedDayOfMonth);
+			this.mDayOfWeekView.setText(DateTextCache.getWeekdayLabel(dayOfWeek));
 		}
 
-        this.mSelectedMonthTv.setText(mDateFormatSymbols.getMonths()[this.mCalendar.get(Calendar.MONTH)].toUpperCase(Locale.getDefault()));
+        this.mSelectedMonthTv.setText(DateTextCache.getMonthLabel(mSelectedMonth));
 
-		this.mSelectedDayTv.setText(DAY_FORMAT.format(mCalendar.getTime()));
-		this.mSelectedYearTv.setText(YEAR_FORMAT.format(mCalendar.getTime()));
+		this.mSelectedDayTv.setText(DateTextCache.getDayOfMonthLabel(mSelectedDayOfMonth));
+		this.mSelectedYearTv.setText(DateTextCache.getYearLabel(mSelectedYear));
 	}
 
 	private void updatePickers() {
-		Iterator<OnDateChangedListener> iterator = mListeners.iterator();
-		while (iterator.hasNext()) {
-			iterator.next().onDateChanged();
+		updatePickers(0);
+	}
+
+	/**
+	 * Tells the listeners what changed since they were last updated.
+	 *
+	 * @param otherChangedFields changes the selected day and range don't show, like DateChangeEvent.SELECTED_DAYS
+	 */
+	void updatePickers(int otherChangedFields) {
+		CalendarDay newDay = getSelectedDay();
+		if (mNotifiedRangeStart != mRangeStart || mNotifiedRangeEnd != getRangeEnd()) {
+			otherChangedFields |= DateChangeEvent.RANGE;
+		}
+		DateChangeEvent event = new DateChangeEvent(mNotifiedDay != null ? mNotifiedDay : newDay, newDay, otherChangedFields);
+		markPickersUpdated();
+		if (event.getChangedFields() == 0) {
+			return;
+		}
+
+		Object[] listeners = mListeners.snapshot();
+		for (int i = 0; i < listeners.length; i++) {
+			((OnDateChangedListener) listeners[i]).onDateChanged(event);
 		}
 	}
 
+	private void markPickersUpdated() {
+		mNotifiedDay = getSelectedDay();
+		mNotifiedRangeStart = mRangeStart;
+		mNotifiedRangeEnd = getRangeEnd();
+	}
+
 	private void setCurrentView(int currentView) {
 		setCurrentView(currentView, false);
 	}
@@ -337,7 +640,7 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 				monthDayAnim.setStartDelay(ANIMATION_DELAY);
 				mDelayAnimation = false;
 			}
-			mDayPickerView.onDateChanged();
+			mDayPickerView.onDateChanged(DateChangeEvent.refresh(getSelectedDay()));
 			if (mCurrentView != currentView || forceRefresh) {
 				mMonthAndDayView.setSelected(true);
 				mSelectedYearTv.setSelected(false);
@@ -352,7 +655,7 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 				yearAnim.setStartDelay(ANIMATION_DELAY);
 				mDelayAnimation = false;
 			}
-			mYearPickerView.onDateChanged();
+			mYearPickerView.onDateChanged(DateChangeEvent.refresh(getSelectedDay()));
 			if (mCurrentView != currentView  || forceRefresh) {
 				mMonthAndDayView.setSelected(false);
 				mSelectedYearTv.setSelected(true);
@@ -377,10 +680,22 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 	}
 
 	private void onDoneButtonClick() {
-		if (mCallBack != null) {
-			mCallBack.onDateSet(this, mCalendar.get(Calendar.YEAR),
-					mCalendar.get(Calendar.MONTH),
-					mCalendar.get(Calendar.DAY_OF_MONTH));
+		if (mMultiSelection) {
+			if (mDatesCallBack != null) {
+				mDatesCallBack.onDatesSet(this);
+			}
+		} else if (mRangeMode) {
+			if (mRangeCallBack != null && mRangeStart != CalendarMath.NO_EPOCH_DAY) {
+				int end = getRangeEnd();
+				mRangeCallBack.onDateRangeSet(this, CalendarMath.getYear(mRangeStart),
+						CalendarMath.getMonth(mRangeStart),
+						CalendarMath.getDayOfMonth(mRangeStart),
+						CalendarMath.getYear(end),
+						CalendarMath.getMonth(end),
+						CalendarMath.getDayOfMonth(end));
+			}
+		} else if (mCallBack != null) {
+			mCallBack.onDateSet(this, mSelectedYear, mSelectedMonth, mSelectedDayOfMonth);
 		}
 		dismiss();
 	}
@@ -400,9 +715,23 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 		return mWeekStart;
 	}
 
-	@Override
 	public CalendarDay getSelectedDay() {
-		return new CalendarDay(mCalendar);
+		return CalendarDay.of(getSelectedYear(), getSelectedMonth(), getSelectedDayOfMonth());
+	}
+
+	@Override
+	public int getSelectedYear() {
+		return mSelectedYear;
+	}
+
+	@Override
+	public int getSelectedMonth() {
+		return mSelectedMonth;
+	}
+
+	@Override
+	public int getSelectedDayOfMonth() {
+		return mSelectedDayOfMonth;
 	}
 
 	@Override
@@ -415,6 +744,61 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 		return mDarkColor;
 	}
 
+	@Override
+	public MonthRenderCache getRenderCache() {
+		return mRenderCacheSize > 0 ? MonthRenderCache.getInstance(mRenderCacheSize) : null;
+	}
+
+	@Override
+	public boolean isUniformMonthHeight() {
+		return mUniformMonthHeight;
+	}
+
+	@Override
+	public int getDisabledDayMask(int year, int month) {
+		int mask = mDisabledDays.getMask(year, month);
+		if (mEnabledDayRule != null) {
+			mask |= ~mEnabledDayRule.getMask(year, month) & DayRule.allDaysMask(Utils.getDaysInMonth(year, month));
+		}
+		return mask;
+	}
+
+	@Override
+	public int getHighlightedDayMask(int year, int month) {
+		return mHighlightedDayRule != null ? mHighlightedDayRule.getMask(year, month) : 0;
+	}
+
+	@Override
+	public DayDecorationProvider getDayDecorationProvider() {
+		return mDayDecorationProvider;
+	}
+
+	@Override
+	public int getRangeStart() {
+		return mRangeStart;
+	}
+
+	@Override
+	public int getRangeEnd() {
+		// a started range shows as its first day until the end is picked
+		return mRangeEnd != CalendarMath.NO_EPOCH_DAY ? mRangeEnd : mRangeStart;
+	}
+
+	@Override
+	public boolean isMultiSelection() {
+		return mMultiSelection;
+	}
+
+	@Override
+	public boolean isRangeMode() {
+		return mRangeMode;
+	}
+
+	@Override
+	public int getSelectedDayMask(int year, int month) {
+		return mMultiSelection ? mSelectedDays.getMask(year, month) : 0;
+	}
+
 	@Override
 	public void tryVibrate() {
 		if (mVibrator != null && mVibrate) {
@@ -428,23 +812,37 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 
 	@Override
 	public void onDayOfMonthSelected(int year, int month, int day) {
-		mCalendar.set(Calendar.YEAR, year);
-		mCalendar.set(Calendar.MONTH, month);
-		mCalendar.set(Calendar.DAY_OF_MONTH, day);
+		setSelectedDay(year, month, day);
 
-		updatePickers();
+		boolean rangeComplete = false;
+		if (mMultiSelection) {
+			if (!mSelectedDays.remove(year, month, day)) {
+				mSelectedDays.add(year, month, day);
+			}
+		} else if (mRangeMode) {
+			int epochDay = CalendarMath.toEpochDay(year, month, day);
+			if (mRangeStart == CalendarMath.NO_EPOCH_DAY || mRangeEnd != CalendarMath.NO_EPOCH_DAY || epochDay < mRangeStart) {
+				mRangeStart = epochDay;
+				mRangeEnd = CalendarMath.NO_EPOCH_DAY;
+			} else {
+				mRangeEnd = epochDay;
+				rangeComplete = true;
+			}
+		}
+
+		updatePickers(mMultiSelection ? DateChangeEvent.SELECTED_DAYS : 0);
 		updateDisplay();
 
-		if (mCloseOnSingleTapDay) {
+		if (mCloseOnSingleTapDay && !mMultiSelection && (!mRangeMode || rangeComplete)) {
 			onDoneButtonClick();
 		}
 	}
 
 	@Override
 	public void onYearSelected(int year) {
-		mCalendar.set(Calendar.YEAR, year);
+		mSelectedYear = year;
 
-		adjustDayInMonthIfNeeded(mCalendar.get(Calendar.MONTH), year);
+		adjustDayInMonthIfNeeded(mSelectedMonth, year);
 
 		updatePickers();
 		setCurrentView(MONTH_AND_DAY_VIEW);
@@ -452,32 +850,65 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
 	}
 
 	private void adjustDayInMonthIfNeeded(int month, int year) {
-		int day = mCalendar.get(Calendar.DAY_OF_MONTH);
 		int daysInMonth = Utils.getDaysInMonth(year, month);
-		if (day > daysInMonth) {
-			mCalendar.set(Calendar.DAY_OF_MONTH, daysInMonth);
+		if (mSelectedDayOfMonth > daysInMonth) {
+			mSelectedDayOfMonth = daysInMonth;
 		}
 	}
 
-	@Override
+	private void setSelectedDay(int year, int month, int day) {
+		mSelectedYear = year;
+		mSelectedMonth = month;
+		mSelectedDayOfMonth = day;
+	}
+
+	/**
+	 * Listeners are only weakly referenced, so they don't keep an old view
+	 * tree alive. The caller must hold on to the listener for as long as it
+	 * should be called, an anonymous listener nothing else references is
+	 * garbage collected and silently stops being called.
+	 */
 	public void registerOnDateChangedListener(OnDateChangedListener onDateChangedListener) {
 		mListeners.add(onDateChangedListener);
 	}
 
+	public void unregisterOnDateChangedListener(OnDateChangedListener onDateChangedListener) {
+		mListeners.remove(onDateChangedListener);
+	}
+
+	/**
+	 * Registers a picker of the current view, {@link #releaseViewListeners} removes it again.
+	 */
+	void registerViewListener(OnDateChangedListener onDateChangedListener) {
+		mListeners.add(onDateChangedListener);
+		mViewListeners.add(onDateChangedListener);
+	}
+
+	void releaseViewListeners() {
+		for (int i = 0; i < mViewListeners.size(); i++) {
+			mListeners.remove(mViewListeners.get(i));
+		}
+		mViewListeners.clear();
+	}
+
+	int getDateChangedListenerCount() {
+		return mListeners.size();
+	}
+
 	public void onSaveInstanceState(Bundle bundle) {
 		super.onSaveInstanceState(bundle);
-		bundle.putInt(KEY_SELECTED_YEAR, mCalendar.get(Calendar.YEAR));
-		bundle.putInt(KEY_SELECTED_MONTH, mCalendar.get(Calendar.MONTH));
-		bundle.putInt(KEY_SELECTED_DAY, mCalendar.get(Calendar.DAY_OF_MONTH));
+		bundle.putInt(KEY_SELECTED_YEAR, mSelectedYear);
+		bundle.putInt(KEY_SELECTED_MONTH, mSelectedMonth);
+		bundle.putInt(KEY_SELECTED_DAY, mSelectedDayOfMonth);
 		bundle.putInt(KEY_YEAR_START, mMinYear);
 		bundle.putInt(KEY_YEAR_END, mMaxYear);
 		bundle.putInt(KEY_WEEK_START, mWeekStart);
 		bundle.putInt(KEY_CURRENT_VIEW, mCurrentView);
 
 		int listPosition = -1;
-		if (mCurrentView == MONTH_AND_DAY_VIEW) {
+		if (mCurrentView == MONTH_AND_DAY_VIEW && mDayPickerView != null) {
 			listPosition = mDayPickerView.getMostVisiblePosition();
-        } if (mCurrentView == YEAR_VIEW) {
+        } if (mCurrentView == YEAR_VIEW && mYearPickerView != null) {
 			listPosition = mYearPickerView.getFirstVisiblePosition();
 			bundle.putInt(KEY_LIST_POSITION_OFFSET, mYearPickerView.getFirstPositionOffset());
 		}
@@ -485,5 +916,14 @@ public class DatePickerDialog extends DialogFragment implements View.OnClickList
     	bundle.putBoolean(KEY_VIBRATE, mVibrate);
 		bundle.putInt(KEY_COLOR, mColor);
 		bundle.putInt(KEY_DARK_COLOR, mDarkColor);
+		bundle.putInt(KEY_RENDER_CACHE_SIZE, mRenderCacheSize);
+		bundle.putBoolean(KEY_RECYCLER_MONTH_LIST, mRecyclerMonthList);
+		bundle.putBoolean(KEY_UNIFORM_MONTH_HEIGHT, mUniformMonthHeight);
+		bundle.putBoolean(KEY_RANGE_MODE, mRangeMode);
+		bundle.putInt(KEY_RANGE_START, mRangeStart);
+		bundle.putInt(KEY_RANGE_END, mRangeEnd);
+		bundle.putBoolean(KEY_MULTI_SELECTION, mMultiSelection);
+		bundle.putIntArray(KEY_SELECTED_DAYS, mSelectedDays.toEpochDays());
+		bundle.putIntArray(KEY_DISABLED_DAYS, mDisabledDays.toEpochDays());
 	}
 }
\ No newline at end of file
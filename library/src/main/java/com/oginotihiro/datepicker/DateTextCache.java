@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.text.format.DateUtils;
+
+/**
+ * Localized text shown by the picker, formatted once per locale so drawing
+ * never has to format anything.
+ *
+ * Weekday, month and day labels are complete tables. Month titles and year
+ * labels are kept in small direct-mapped tables keyed by month ordinal and
+ * year. Everything is dropped when the default locale or the time zone
+ * changes. Titles and years are meant to be read on the UI thread.
+ */
+final class DateTextCache {
+	static final int MAX_DAY_NUMBER = 31;
+
+	private static final int TITLE_CACHE_SIZE = 64; // power of two
+	private static final int YEAR_CACHE_SIZE = 64; // power of two
+	// DateUtils formats through 32 bit time_t on older platforms
+	private static final int MIN_DATE_UTILS_YEAR = 1902;
+	private static final int MAX_DATE_UTILS_YEAR = 2037;
+
+	private static volatile Entries sEntries;
+	private static volatile boolean sReceiverRegistered;
+
+	private DateTextCache() {}
+
+	/**
+	 * Digits of the given day of month in the default locale's numerals. The returned array is shared and must not be modified.
+	 */
+	static char[] getDayNumber(int day) {
+		return entries().dayNumbers[day];
+	}
+
+	/**
+	 * 日 一 ... 六, dayOfWeek is Calendar.SUNDAY - Calendar.SATURDAY
+	 */
+	static String getShortWeekdayLabel(int dayOfWeek) {
+		return entries().shortWeekdays[dayOfWeek];
+	}
+
+	/**
+	 * 星期日 ... 星期六, dayOfWeek is Calendar.SUNDAY - Calendar.SATURDAY
+	 */
+	static String getWeekdayLabel(int dayOfWeek) {
+		return entries().weekdays[dayOfWeek];
+	}
+
+	static String getMonthLabel(int month) {
+		return entries().months[month];
+	}
+
+	/**
+	 * Two digit day of month, like "dd"
+	 */
+	static String getDayOfMonthLabel(int day) {
+		return entries().daysOfMonth[day];
+	}
+
+	static String getYearLabel(int year) {
+		Entries entries = entries();
+		int slot = year & (YEAR_CACHE_SIZE - 1);
+		String label = entries.yearLabels[slot];
+		if (label == null || entries.yearKeys[slot] != year) {
+			label = String.format(entries.locale, "%d", year);
+			entries.yearLabels[slot] = label;
+			entries.yearKeys[slot] = year;
+		}
+		return label;
+	}
+
+	/**
+	 * 2015年10月
+	 */
+	static String getMonthTitle(Context context, int year, int month) {
+		if (!sReceiverRegistered) {
+			registerReceiver(context);
+		}
+
+		Entries entries = entries();
+		int key = year * SimpleMonthAdapter.MONTHS_IN_YEAR + month;
+		int slot = key & (TITLE_CACHE_SIZE - 1);
+		String title = entries.titles[slot];
+		if (title == null || entries.titleKeys[slot] != key) {
+			title = formatMonthTitle(context, year, month);
+			entries.titles[slot] = title;
+			entries.titleKeys[slot] = key;
+		}
+		return title;
+	}
+
+	private static String formatMonthTitle(Context context, int year, int month) {
+		// UTC midnight of the 1st, on the proleptic calendar CalendarMath counts with
+		long millis = CalendarMath.toEpochDay(year, month, 1) * DateUtils.DAY_IN_MILLIS;
+
+		if (year < MIN_DATE_UTILS_YEAR || year > MAX_DATE_UTILS_YEAR) {
+			return entries().getTitleFormat().format(new Date(millis));
+		}
+
+		int flags = DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_SHOW_YEAR | DateUtils.FORMAT_NO_MONTH_DAY | DateUtils.FORMAT_UTC;
+		return DateUtils.formatDateRange(context, millis, millis, flags);
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+	private static String getMonthTitlePattern(Locale locale) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+			return android.text.format.DateFormat.getBestDateTimePattern(locale, "MMMMyyyy");
+		}
+		return "MMMM yyyy";
+	}
+
+	static void clear() {
+		sEntries = null;
+	}
+
+	private static Entries entries() {
+		Locale locale = Locale.getDefault();
+		Entries entries = sEntries;
+		if (entries == null || entries.locale != locale) {
+			entries = new Entries(locale);
+			sEntries = entries;
+		}
+		return entries;
+	}
+
+	private static synchronized void registerReceiver(Context context) {
+		if (sReceiverRegistered) {
+			return;
+		}
+		IntentFilter filter = new IntentFilter();
+		filter.addAction(Intent.ACTION_LOCALE_CHANGED);
+		filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+		context.getApplicationContext().registerReceiver(new BroadcastReceiver() {
+			@Override
+			public void onReceive(Context context, Intent intent) {
+				clear();
+			}
+		}, filter);
+		sReceiverRegistered = true;
+	}
+
+	private static final class Entries {
+		final Locale locale;
+		final char[][] dayNumbers = new char[MAX_DAY_NUMBER + 1][];
+		final String[] daysOfMonth = new String[MAX_DAY_NUMBER + 1];
+		final String[] shortWeekdays;
+		final String[] weekdays;
+		final String[] months;
+
+		final String[] titles = new String[TITLE_CACHE_SIZE];
+		final int[] titleKeys = new int[TITLE_CACHE_SIZE];
+		final String[] yearLabels = new String[YEAR_CACHE_SIZE];
+		final int[] yearKeys = new int[YEAR_CACHE_SIZE];
+
+		private SimpleDateFormat titleFormat;
+
+		Entries(Locale locale) {
+			this.locale = locale;
+			for (int day = 1; day <= MAX_DAY_NUMBER; day++) {
+				dayNumbers[day] = String.format(locale, "%d", day).toCharArray();
+				daysOfMonth[day] = String.format(locale, "%02d", day);
+			}
+
+			DateFormatSymbols symbols = new DateFormatSymbols(locale);
+			shortWeekdays = toUpperCase(symbols.getShortWeekdays(), locale);
+			weekdays = toUpperCase(symbols.getWeekdays(), locale);
+			months = toUpperCase(symbols.getMonths(), locale);
+		}
+
+		/**
+		 * Month titles for the years DateUtils can't format, on a proleptic UTC calendar.
+		 */
+		SimpleDateFormat getTitleFormat() {
+			if (titleFormat == null) {
+				GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"), locale);
+				calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+				titleFormat = new SimpleDateFormat(getMonthTitlePattern(locale), locale);
+				titleFormat.setCalendar(calendar);
+			}
+			return titleFormat;
+		}
+
+		private static String[] toUpperCase(String[] values, Locale locale) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = values[i].toUpperCase(locale);
+			}
+			return values;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+/**
+ * Source of per-day decorations, like prices or availability dots.
+ *
+ * Months are requested as they scroll into view, one call per month, on a
+ * background thread. Implementations may block, and should not touch views.
+ */
+public interface DayDecorationProvider {
+	void loadDecorations(int year, int month, MonthDecorations out);
+}
@@ -19,93 +19,109 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.graphics.drawable.StateListDrawable;
 import android.os.Build;
-import android.os.Handler;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
 import android.widget.AbsListView;
 import android.widget.ListView;
 
-public class DayPickerView extends ListView implements AbsListView.OnScrollListener, DatePickerDialog.OnDateChangedListener {
+public class DayPickerView extends ListView implements AbsListView.OnScrollListener, MonthListView {
 	private static final int LIST_TOP_OFFSET = -1;
 	private static final int GOTO_SCROLL_DURATION = 250;
-    private static final int SCROLL_CHANGE_DELAY = 40;
 	
 	private final DatePickerController mController;
 
     private SimpleMonthAdapter mAdapter;
+	private MonthListScroller mScroller;
 
 	private float mFriction = 1.0F;
 
 	private CalendarDay mSelectedDay = new CalendarDay();
-	private CalendarDay mTempDay = new CalendarDay();
 
 	@SuppressWarnings("unused")
 	private int mCurrentMonthDisplayed;
     
-	private ScrollStateRunnable mScrollStateChangedRunnable = new ScrollStateRunnable();
-	private Handler mHandler = new Handler();
-	
     protected int mCurrentScrollState = 0;
 	protected int mPreviousScrollState = 0;
 
+	private final GoToRunnable mGoToRunnable = new GoToRunnable();
+
+	private VelocityTracker mVelocityTracker;
+	private int mMinimumFlingVelocity;
+	private int mMaximumFlingVelocity;
+
 	public DayPickerView(Context context, DatePickerController datePickerController) {
 		super(context);
 
 		mController = datePickerController;
-		mController.registerOnDateChangedListener(this);
 
 		setLayoutParams(new ViewGroup.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
 
 		init();
 
-		onDateChanged();
+		onDateChanged(DateChangeEvent.refresh(getControllerDay()));
 	}
 
 	private void init() {
 		setUpListView();
 		setUpAdapter();
+		setFrictionIfSupported(ViewConfiguration.getScrollFriction() * mFriction);
+		// setOnScrollListener calls onScroll right away, which needs the adapter
+		setOnScrollListener(this);
 	}
 
 	private void setUpListView() {
+		ViewConfiguration configuration = ViewConfiguration.get(getContext());
+		mMinimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+		mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+
 		setVerticalScrollBarEnabled(false);
 		setFadingEdgeLength(0);
 		setCacheColorHint(0);
 		setDividerHeight(0);
 		setSelector(new StateListDrawable());
-		setFrictionIfSupported(ViewConfiguration.getScrollFriction() * mFriction);
 		setItemsCanFocus(true);
-		setOnScrollListener(this);
 	}
 	
 	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
 	private void setFrictionIfSupported(float friction) {
 		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
 			setFriction(friction);
+			mScroller.setFlingFriction(friction);
 		}
 	}
 	
 	private void setUpAdapter() {
 		if (mAdapter == null) {
 			mAdapter = new SimpleMonthAdapter(getContext(), mController);
+			mScroller = new MonthListScroller(getContext(), mController, mAdapter);
 		}
 		mAdapter.setSelectedDay(mSelectedDay);
 		setAdapter(mAdapter);
 	}
 
 	@Override
-	public void onDateChanged() {
-		goTo(mController.getSelectedDay(), false, true, true);
+	public void onDateChanged(DateChangeEvent event) {
+		if (mAdapter.onDateChanged(event)) {
+			goTo(event.getNewDay(), false, true, false);
+		} else {
+			mSelectedDay = event.getNewDay();
+		}
+	}
+
+	private CalendarDay getControllerDay() {
+		return CalendarDay.of(mController.getSelectedYear(), mController.getSelectedMonth(), mController.getSelectedDayOfMonth());
 	}
 
 	public boolean goTo(CalendarDay day, boolean animate, boolean setSelected, boolean forceScroll) {
 		// Set the selected day
 		if (setSelected) {
-			mSelectedDay.set(day);
+			mSelectedDay = day;
 		}
 
-        mTempDay.set(day);
-		final int position = (day.year - mController.getMinYear()) * SimpleMonthAdapter.MONTHS_IN_YEAR + day.month;
+		final int position = mAdapter.getPosition(day);
 
         View child;
         int i = 0;
@@ -129,17 +145,25 @@ public class DayPickerView extends ListView implements AbsListView.OnScrollListe
         }
 
         if (setSelected) {
-            mAdapter.setSelectedDay(mSelectedDay);
+            mAdapter.updateSelectedDay(mSelectedDay);
         }
 
         // Check if the selected day is now outside of our visible range
         // and if so scroll to the month that contains it
         // 强制滚动
         if (position != selectedPosition || forceScroll) {
-			setMonthDisplayed(mTempDay);
-			mPreviousScrollState = OnScrollListener.SCROLL_STATE_FLING;
+			setMonthDisplayed(day);
 			if (animate && Build.VERSION.SDK_INT >= 11) {
-				smoothScrollToPositionFromTop(position, LIST_TOP_OFFSET, GOTO_SCROLL_DURATION);
+				removeCallbacks(mGoToRunnable);
+				mGoToRunnable.mPosition = position;
+				int jumpPosition = mScroller.getGoToJumpPosition(selectedPosition, position);
+				if (jumpPosition >= 0) {
+					// animate after the layout that lands on jumpPosition
+					setSelection(jumpPosition);
+					post(mGoToRunnable);
+				} else {
+					mGoToRunnable.run();
+				}
 				return true;
 			} else {
 				postSetSelection(position);
@@ -151,8 +175,7 @@ public class DayPickerView extends ListView implements AbsListView.OnScrollListe
     }
     
 	private void setMonthDisplayed(CalendarDay calendarDay) {
-		this.mCurrentMonthDisplayed = calendarDay.month;
-		invalidateViews();
+		this.mCurrentMonthDisplayed = calendarDay.getMonth();
 	}
 
 	public void postSetSelection(final int position) {
@@ -166,67 +189,94 @@ public class DayPickerView extends ListView implements AbsListView.OnScrollListe
 		onScrollStateChanged(this, OnScrollListener.SCROLL_STATE_IDLE);
 	}
 	
+	private class GoToRunnable implements Runnable {
+		private int mPosition;
+
+		@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+		@Override
+		public void run() {
+			smoothScrollToPositionFromTop(mPosition, LIST_TOP_OFFSET, GOTO_SCROLL_DURATION);
+		}
+	}
+
 	@Override
 	public void onScrollStateChanged(AbsListView view, int scrollState) {
-		// use a post to prevent re-entering onScrollStateChanged before it exits
-		mScrollStateChangedRunnable.doScrollStateChange(view, scrollState);
+		mPreviousScrollState = mCurrentScrollState;
+		mCurrentScrollState = scrollState;
 	}
 
 	@Override
 	public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
-		mPreviousScrollState = mCurrentScrollState;
+		mAdapter.setVisibleRange(firstVisibleItem, firstVisibleItem + visibleItemCount - 1);
 	}
 
-	private class ScrollStateRunnable implements Runnable {
-		private int mNewState;
-
-        public void doScrollStateChange(AbsListView view, int scrollState) {
-            mHandler.removeCallbacks(this);
-            mNewState = scrollState;
-            mHandler.postDelayed(this, SCROLL_CHANGE_DELAY);
-        }
+	@Override
+	public boolean onTouchEvent(MotionEvent event) {
+		if (mVelocityTracker == null) {
+			mVelocityTracker = VelocityTracker.obtain();
+		}
+		mVelocityTracker.addMovement(event);
 
-        @Override
-        public void run() {
-            mCurrentScrollState = mNewState;
-            
-            // Fix the position after a scroll or a fling ends
-            if (mNewState == OnScrollListener.SCROLL_STATE_IDLE
-                    && mPreviousScrollState != OnScrollListener.SCROLL_STATE_IDLE
-                    && mPreviousScrollState != OnScrollListener.SCROLL_STATE_TOUCH_SCROLL) {
-                mPreviousScrollState = mNewState;
-                
-				int i = 0;
-				View child = getChildAt(i);
-				while (child != null && child.getBottom() <= 0) {
-					child = getChildAt(++i);
+		switch (event.getActionMasked()) {
+		case MotionEvent.ACTION_UP:
+			mVelocityTracker.computeCurrentVelocity(1000, mMaximumFlingVelocity);
+			int velocity = -(int) mVelocityTracker.getYVelocity();
+			recycleVelocityTracker();
+			if (mCurrentScrollState == OnScrollListener.SCROLL_STATE_TOUCH_SCROLL && Math.abs(velocity) > mMinimumFlingVelocity
+					&& getChildCount() > 0) {
+				// replace the list's own fling with one just fast enough to stop at the closest month start
+				int distance = mScroller.getFlingSnapDistance(this, getFirstVisiblePosition(), velocity);
+				MotionEvent cancel = MotionEvent.obtain(event);
+				cancel.setAction(MotionEvent.ACTION_CANCEL);
+				super.onTouchEvent(cancel);
+				cancel.recycle();
+				int snapVelocity = mScroller.getFlingVelocity(distance);
+				if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+					flingLollipop(snapVelocity);
+				} else {
+					// AbsListView.fling is hidden before Lollipop, scroll the same distance for as long as that fling would last
+					smoothScrollBy(distance, mScroller.getFlingDuration(snapVelocity));
 				}
-				// 获取显示的第一个child
-                
-                if (child == null) {
-                    // The view is no longer visible, just return
-                    return;
-                }
-                
-                int firstPosition = getFirstVisiblePosition();
-                int lastPosition = getLastVisiblePosition();
-                boolean scroll = firstPosition != 0 && lastPosition != getCount() - 1;
-                final int top = child.getTop();
-                final int bottom = child.getBottom();
-                final int midpoint = getHeight() / 2;
-                
-                if (scroll && top < LIST_TOP_OFFSET) {
-                    if (bottom > midpoint) {
-                        smoothScrollBy(top, GOTO_SCROLL_DURATION);
-                    } else {
-                        smoothScrollBy(bottom, GOTO_SCROLL_DURATION);
-                    }
-                }
-            } else {
-                mPreviousScrollState = mNewState;
-            }
-        }
-    }
+				return true;
+			}
+			break;
+		case MotionEvent.ACTION_CANCEL:
+			recycleVelocityTracker();
+			break;
+		}
+		return super.onTouchEvent(event);
+	}
+
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	private void flingLollipop(int velocity) {
+		fling(velocity);
+	}
+
+	private void recycleVelocityTracker() {
+		if (mVelocityTracker != null) {
+			mVelocityTracker.recycle();
+			mVelocityTracker = null;
+		}
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		removeCallbacks(mGoToRunnable);
+		mAdapter.cancelDecorationLoads();
+	}
+
+	public void onDayDecorationProviderChanged() {
+		mAdapter.setDayDecorationProvider(mController.getDayDecorationProvider());
+	}
+
+	public void onSelectedDaysChanged() {
+		mAdapter.updateSelectedDays();
+	}
+
+	public void onDayStatesChanged() {
+		mAdapter.updateDayStates();
+	}
 
 	public void onChanged() {
 		setUpAdapter();
@@ -234,26 +284,6 @@ public class DayPickerView extends ListView implements AbsListView.OnScrollListe
 	}
 
 	public int getMostVisiblePosition() {
-		final int firstPosition = getFirstVisiblePosition();
-		final int height = getHeight();
-
-		int maxDisplayedHeight = 0;
-		int mostVisibleIndex = 0;
-		int i = 0;
-		int bottom = 0;
-		while (bottom < height) {
-			View child = getChildAt(i);
-			if (child == null) {
-				break;
-			}
-			bottom = child.getBottom();
-			int displayedHeight = Math.min(bottom, height) - Math.max(0, child.getTop());
-			if (displayedHeight > maxDisplayedHeight) {
-				mostVisibleIndex = i;
-				maxDisplayedHeight = displayedHeight;
-			}
-			i++;
-		}
-		return firstPosition + mostVisibleIndex;
+		return mScroller.getMostVisiblePosition(this, getFirstVisiblePosition());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recurring set of days, like "no weekends" or "every 2nd Tuesday".
+ *
+ * A rule is never expanded into single days, it is compiled to a day mask
+ * per month when that month is shown. Compiled masks are kept in a shared
+ * direct mapped cache keyed by (rule, year, month), so the cost follows the
+ * months that are actually viewed. Rules are immutable.
+ */
+public abstract class DayRule {
+	// a power of two, a few pages of months for a couple of rules
+	private static final int CACHE_SIZE = 64;
+	private static final long NO_KEY = -1;
+	private static final int DAYS_IN_WEEK = 7;
+	private static final int ORDINAL_BITS = 20;
+
+	private static final AtomicInteger sNextId = new AtomicInteger();
+	private static final long[] sMaskKeys = newMaskKeys();
+	private static final int[] sMasks = new int[CACHE_SIZE];
+
+	private final int mId = sNextId.getAndIncrement();
+
+	DayRule() {}
+
+	/**
+	 * Days of the month matching this rule, bit (day - 1) is set for each of them.
+	 */
+	public final int getMask(int year, int month) {
+		long key = ((long) mId << ORDINAL_BITS) | (year * SimpleMonthAdapter.MONTHS_IN_YEAR + month);
+		int index = indexOf(key);
+		synchronized (sMasks) {
+			if (sMaskKeys[index] == key) {
+				return sMasks[index];
+			}
+		}
+
+		int mask = computeMask(year, month, MonthLayout.getDaysInMonth(year, month),
+				MonthLayout.getDayOffset(year, month, Calendar.SUNDAY) + Calendar.SUNDAY);
+		synchronized (sMasks) {
+			sMaskKeys[index] = key;
+			sMasks[index] = mask;
+		}
+		return mask;
+	}
+
+	private static int indexOf(long key) {
+		// Fibonacci hashing spreads neighbouring months and rules over the slots
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(CACHE_SIZE)));
+	}
+
+	private static long[] newMaskKeys() {
+		long[] keys = new long[CACHE_SIZE];
+		Arrays.fill(keys, NO_KEY);
+		return keys;
+	}
+
+	/**
+	 * @param dayOfWeekOfFirst day of week of the 1st, Calendar.SUNDAY - Calendar.SATURDAY
+	 */
+	abstract int computeMask(int year, int month, int daysInMonth, int dayOfWeekOfFirst);
+
+	/**
+	 * Every day falling on one of the given days of week, e.g. Calendar.SATURDAY, Calendar.SUNDAY.
+	 */
+	public static DayRule daysOfWeek(int... daysOfWeek) {
+		int weekMask = 0;
+		for (int dayOfWeek : daysOfWeek) {
+			checkDayOfWeek(dayOfWeek);
+			weekMask |= 1 << (dayOfWeek - 1);
+		}
+		return new DaysOfWeekRule(weekMask);
+	}
+
+	/**
+	 * Saturdays and Sundays.
+	 */
+	public static DayRule weekends() {
+		return daysOfWeek(Calendar.SATURDAY, Calendar.SUNDAY);
+	}
+
+	/**
+	 * The n-th given day of week of every month, n is 1 - 5, or -1 for the last one.
+	 */
+	public static DayRule nthDayOfWeek(int n, int dayOfWeek) {
+		if (n == 0 || n < -1 || n > 5) {
+			throw new IllegalArgumentException("n must be 1 - 5 or -1");
+		}
+		checkDayOfWeek(dayOfWeek);
+		return new NthDayOfWeekRule(n, dayOfWeek);
+	}
+
+	/**
+	 * The last Monday - Friday of every month.
+	 */
+	public static DayRule lastBusinessDayOfMonth() {
+		return new LastBusinessDayRule();
+	}
+
+	/**
+	 * Every day from fromMonth/fromDay to toMonth/toDay inclusive, every year. The range may wrap
+	 * around the end of the year, like Calendar.DECEMBER 24 - Calendar.JANUARY 2.
+	 */
+	public static DayRule annualRange(int fromMonth, int fromDay, int toMonth, int toDay) {
+		return new AnnualRangeRule(fromMonth, fromDay, toMonth, toDay);
+	}
+
+	/**
+	 * Days matching any of the rules.
+	 */
+	public static DayRule anyOf(DayRule... rules) {
+		return new CompositeRule(rules, false);
+	}
+
+	/**
+	 * Days matching all of the rules.
+	 */
+	public static DayRule allOf(DayRule... rules) {
+		return new CompositeRule(rules, true);
+	}
+
+	/**
+	 * Days not matching the rule.
+	 */
+	public static DayRule not(DayRule rule) {
+		return new NotRule(rule);
+	}
+
+	static int allDaysMask(int daysInMonth) {
+		return (1 << daysInMonth) - 1;
+	}
+
+	private static void checkDayOfWeek(int dayOfWeek) {
+		if (dayOfWeek < Calendar.SUNDAY || dayOfWeek > Calendar.SATURDAY) {
+			throw new IllegalArgumentException("Value must be between Calendar.SUNDAY and Calendar.SATURDAY");
+		}
+	}
+
+	private static int dayOfWeekOf(int day, int dayOfWeekOfFirst) {
+		return (dayOfWeekOfFirst - 1 + day - 1) % DAYS_IN_WEEK + 1;
+	}
+
+	private static final class DaysOfWeekRule extends DayRule {
+		private final int mWeekMask;
+
+		DaysOfWeekRule(int weekMask) {
+			mWeekMask = weekMask;
+		}
+
+		@Override
+		int computeMask(int year, int month, int daysInMonth, int dayOfWeekOfFirst) {
+			int mask = 0;
+			for (int day = 1; day <= daysInMonth; day++) {
+				if ((mWeekMask & (1 << (dayOfWeekOf(day, dayOfWeekOfFirst) - 1))) != 0) {
+					mask |= MonthMaskSet.bit(day);
+				}
+			}
+			return mask;
+		}
+	}
+
+	private static final class NthDayOfWeekRule extends DayRule {
+		private final int mN;
+		private final int mDayOfWeek;
+
+		NthDayOfWeekRule(int n, int dayOfWeek) {
+			mN = n;
+			mDayOfWeek = dayOfWeek;
+		}
+
+		@Override
+		int computeMask(int year, int month, int daysInMonth, int dayOfWeekOfFirst) {
+			int first = 1 + (mDayOfWeek - dayOfWeekOfFirst + DAYS_IN_WEEK) % DAYS_IN_WEEK;
+			int day;
+			if (mN == -1) {
+				day = first + (daysInMonth - first) / DAYS_IN_WEEK * DAYS_IN_WEEK;
+			} else {
+				day = first + (mN - 1) * DAYS_IN_WEEK;
+			}
+			return day <= daysInMonth ? MonthMaskSet.bit(day) : 0;
+		}
+	}
+
+	private static final class LastBusinessDayRule extends DayRule {
+		@Override
+		int computeMask(int year, int month, int daysInMonth, int dayOfWeekOfFirst) {
+			int day = daysInMonth;
+			int dayOfWeek = dayOfWeekOf(day, dayOfWeekOfFirst);
+			while (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY) {
+				day--;
+				dayOfWeek = dayOfWeekOf(day, dayOfWeekOfFirst);
+			}
+			return MonthMaskSet.bit(day);
+		}
+	}
+
+	private static final class AnnualRangeRule extends DayRule {
+		private final int mFrom;
+		private final int mTo;
+
+		AnnualRangeRule(int fromMonth, int fromDay, int toMonth, int toDay) {
+			mFrom = fromMonth * 32 + fromDay;
+			mTo = toMonth * 32 + toDay;
+		}
+
+		@Override
+		int computeMask(int year, int month, int daysInMonth, int dayOfWeekOfFirst) {
+			int mask = 0;
+			for (int day = 1; day <= daysInMonth; day++) {
+				int value = month * 32 + day;
+				boolean inRange = mFrom <= mTo
+						? value >= mFrom && value <= mTo
+						: value >= mFrom || value <= mTo;
+				if (inRange) {
+					mask |= MonthMaskSet.bit(day);
+				}
+			}
+			return mask;
+		}
+	}
+
+	private static final class CompositeRule extends DayRule {
+		private final DayRule[] mRules;
+		private final boolean mAll;
+
+		CompositeRule(DayRule[] rules, boolean all) {
+			mRules = rules.clone();
+			mAll = all;
+		}
+
+		@Override
+		int computeMask(int year, int month, int daysInMonth, int dayOfWeekOfFirst) {
+			int mask = mAll ? allDaysMask(daysInMonth) : 0;
+			for (DayRule rule : mRules) {
+				int ruleMask = rule.computeMask(year, month, daysInMonth, dayOfWeekOfFirst);
+				mask = mAll ? mask & ruleMask : mask | ruleMask;
+			}
+			return mask;
+		}
+	}
+
+	private static final class NotRule extends DayRule {
+		private final DayRule mRule;
+
+		NotRule(DayRule rule) {
+			mRule = rule;
+		}
+
+		@Override
+		int computeMask(int year, int month, int daysInMonth, int dayOfWeekOfFirst) {
+			return ~mRule.computeMask(year, month, daysInMonth, dayOfWeekOfFirst) & allDaysMask(daysInMonth);
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Loads {@link MonthDecorations} from a {@link DayDecorationProvider} off the
+ * UI thread and keeps the most recent months in an LRU.
+ *
+ * A month is requested at most once while its request is pending. Requests
+ * for months that left the visible range before their turn are cancelled, so
+ * a fast fling only loads the months it stops at. A month whose load threw is
+ * requested again the next time it is asked for. Everything except the
+ * provider call runs on the main executor.
+ */
+final class DecorationLoader {
+	static final int DEFAULT_CACHE_SIZE = 24;
+	private static final int PREFETCH_MONTHS = 1;
+
+	interface Callback {
+		void onDecorationsLoaded(int year, int month, MonthDecorations decorations);
+	}
+
+	private static ExecutorService sBackgroundExecutor;
+	private static Executor sMainExecutor;
+
+	private final DayDecorationProvider mProvider;
+	private final Executor mBackgroundExecutor;
+	private final Executor mMainExecutor;
+	private final Callback mCallback;
+	private final LongLruCache<MonthDecorations> mCache;
+	private final ArrayList<Request> mPending = new ArrayList<Request>();
+
+	private int mFirstVisible = Integer.MIN_VALUE;
+	private int mLastVisible = Integer.MAX_VALUE;
+	private int mMinOrdinal = 0;
+	private int mMaxOrdinal = Integer.MAX_VALUE;
+
+	DecorationLoader(DayDecorationProvider provider, Executor backgroundExecutor, Executor mainExecutor,
+			int cacheSize, Callback callback) {
+		mProvider = provider;
+		mBackgroundExecutor = backgroundExecutor;
+		mMainExecutor = mainExecutor;
+		mCache = new LongLruCache<MonthDecorations>(cacheSize);
+		mCallback = callback;
+	}
+
+	static synchronized Executor getDefaultBackgroundExecutor() {
+		if (sBackgroundExecutor == null) {
+			sBackgroundExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "DayDecorationLoader");
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+		}
+		return sBackgroundExecutor;
+	}
+
+	static synchronized Executor getDefaultMainExecutor() {
+		if (sMainExecutor == null) {
+			final Handler handler = new Handler(Looper.getMainLooper());
+			sMainExecutor = new Executor() {
+				@Override
+				public void execute(Runnable command) {
+					handler.post(command);
+				}
+			};
+		}
+		return sMainExecutor;
+	}
+
+	/**
+	 * The cached decorations of the month, or null after scheduling a load of them.
+	 */
+	MonthDecorations get(int year, int month) {
+		int ordinal = toOrdinal(year, month);
+		MonthDecorations decorations = mCache.get(ordinal);
+		if (decorations == null) {
+			request(ordinal);
+		}
+		return decorations;
+	}
+
+	/**
+	 * Months outside these years are never prefetched.
+	 */
+	void setYearRange(int minYear, int maxYear) {
+		mMinOrdinal = toOrdinal(minYear, 0);
+		mMaxOrdinal = toOrdinal(maxYear, SimpleMonthAdapter.MONTHS_IN_YEAR - 1);
+	}
+
+	/**
+	 * Cancels pending loads outside the visible months and prefetches the months next to them.
+	 */
+	void setVisibleRange(int firstYear, int firstMonth, int lastYear, int lastMonth) {
+		int first = toOrdinal(firstYear, firstMonth) - PREFETCH_MONTHS;
+		int last = toOrdinal(lastYear, lastMonth) + PREFETCH_MONTHS;
+		if (first == mFirstVisible && last == mLastVisible) {
+			return;
+		}
+		mFirstVisible = first;
+		mLastVisible = last;
+
+		for (int i = mPending.size() - 1; i >= 0; i--) {
+			Request request = mPending.get(i);
+			if (request.mOrdinal < first || request.mOrdinal > last) {
+				request.mCancelled = true;
+				mPending.remove(i);
+			}
+		}
+
+		prefetch(first);
+		prefetch(last);
+	}
+
+	/**
+	 * Cancels every pending load, e.g. when the picker goes away.
+	 */
+	void cancelAll() {
+		for (int i = 0; i < mPending.size(); i++) {
+			mPending.get(i).mCancelled = true;
+		}
+		mPending.clear();
+		mFirstVisible = Integer.MIN_VALUE;
+		mLastVisible = Integer.MAX_VALUE;
+	}
+
+	int getPendingCount() {
+		return mPending.size();
+	}
+
+	private void prefetch(int ordinal) {
+		if (ordinal >= mMinOrdinal && ordinal <= mMaxOrdinal && mCache.get(ordinal) == null) {
+			request(ordinal);
+		}
+	}
+
+	private void request(int ordinal) {
+		for (int i = 0; i < mPending.size(); i++) {
+			if (mPending.get(i).mOrdinal == ordinal) {
+				return;
+			}
+		}
+		Request request = new Request(ordinal);
+		mPending.add(request);
+		mBackgroundExecutor.execute(request);
+	}
+
+	/**
+	 * @param decorations null if the provider threw, nothing is cached so the month is tried again
+	 */
+	private void onLoaded(Request request, MonthDecorations decorations) {
+		mPending.remove(request);
+		if (request.mCancelled || decorations == null) {
+			return;
+		}
+		mCache.put(request.mOrdinal, decorations);
+		mCallback.onDecorationsLoaded(request.mOrdinal / SimpleMonthAdapter.MONTHS_IN_YEAR,
+				request.mOrdinal % SimpleMonthAdapter.MONTHS_IN_YEAR, decorations);
+	}
+
+	private static int toOrdinal(int year, int month) {
+		return year * SimpleMonthAdapter.MONTHS_IN_YEAR + month;
+	}
+
+	private final class Request implements Runnable {
+		final int mOrdinal;
+		volatile boolean mCancelled;
+
+		Request(int ordinal) {
+			mOrdinal = ordinal;
+		}
+
+		@Override
+		public void run() {
+			if (mCancelled) {
+				return;
+			}
+			MonthDecorations decorations = new MonthDecorations();
+			try {
+				mProvider.loadDecorations(mOrdinal / SimpleMonthAdapter.MONTHS_IN_YEAR,
+						mOrdinal % SimpleMonthAdapter.MONTHS_IN_YEAR, decorations);
+			} catch (RuntimeException e) {
+				// the month is still taken off the pending list, or it would never be requested again
+				decorations = null;
+			}
+			final MonthDecorations result = decorations;
+			mMainExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					onLoaded(Request.this, result);
+				}
+			});
+		}
+	}
+}
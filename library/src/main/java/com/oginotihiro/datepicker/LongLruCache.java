@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+/**
+ * Small LRU cache with primitive long keys, in the spirit of
+ * android.support.v4.util.LruCache but without boxing a key per lookup.
+ *
+ * Entries live in parallel arrays and are found by a linear scan, which is
+ * fine for the few dozen entries the picker keeps. Not thread safe.
+ */
+class LongLruCache<V> {
+	private static final int INITIAL_CAPACITY = 8;
+
+	private int mMaxSize;
+	private int mSize;
+
+	private long[] mKeys = new long[INITIAL_CAPACITY];
+	private Object[] mValues = new Object[INITIAL_CAPACITY];
+	private long[] mLastAccess = new long[INITIAL_CAPACITY];
+	private int mCount;
+	private long mClock;
+
+	/**
+	 * @param maxSize for caches that do not override {@link #sizeOf}, the maximum number of entries, otherwise the maximum sum of the sizes
+	 */
+	LongLruCache(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize <= 0");
+		}
+		mMaxSize = maxSize;
+	}
+
+	@SuppressWarnings("unchecked")
+	final V get(long key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		mLastAccess[index] = ++mClock;
+		return (V) mValues[index];
+	}
+
+	final void put(long key, V value) {
+		if (value == null) {
+			throw new NullPointerException("value == null");
+		}
+		remove(key);
+
+		if (mCount == mKeys.length) {
+			grow();
+		}
+		mKeys[mCount] = key;
+		mValues[mCount] = value;
+		mLastAccess[mCount] = ++mClock;
+		mCount++;
+		mSize += safeSizeOf(key, value);
+
+		trimToSize(mMaxSize);
+	}
+
+	@SuppressWarnings("unchecked")
+	final V remove(long key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		V value = (V) mValues[index];
+		removeAt(index);
+		entryRemoved(key, value);
+		return value;
+	}
+
+	final void evictAll() {
+		trimToSize(-1);
+	}
+
+	final void resize(int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize <= 0");
+		}
+		mMaxSize = maxSize;
+		trimToSize(maxSize);
+	}
+
+	final int size() {
+		return mSize;
+	}
+
+	final int maxSize() {
+		return mMaxSize;
+	}
+
+	protected int sizeOf(long key, V value) {
+		return 1;
+	}
+
+	/**
+	 * Called when an entry is evicted or removed.
+	 */
+	protected void entryRemoved(long key, V value) {}
+
+	@SuppressWarnings("unchecked")
+	private void trimToSize(int maxSize) {
+		while (mSize > maxSize && mCount > 0) {
+			int eldest = 0;
+			for (int i = 1; i < mCount; i++) {
+				if (mLastAccess[i] < mLastAccess[eldest]) {
+					eldest = i;
+				}
+			}
+			long key = mKeys[eldest];
+			V value = (V) mValues[eldest];
+			removeAt(eldest);
+			entryRemoved(key, value);
+		}
+	}
+
+	private int indexOf(long key) {
+		for (int i = 0; i < mCount; i++) {
+			if (mKeys[i] == key) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void removeAt(int index) {
+		mSize -= safeSizeOf(mKeys[index], (V) mValues[index]);
+		int last = --mCount;
+		mKeys[index] = mKeys[last];
+		mValues[index] = mValues[last];
+		mLastAccess[index] = mLastAccess[last];
+		mValues[last] = null;
+	}
+
+	private int safeSizeOf(long key, V value) {
+		int size = sizeOf(key, value);
+		if (size < 0) {
+			throw new IllegalStateException("Negative size: " + key + "=" + value);
+		}
+		return size;
+	}
+
+	private void grow() {
+		int capacity = mKeys.length * 2;
+		long[] keys = new long[capacity];
+		Object[] values = new Object[capacity];
+		long[] lastAccess = new long[capacity];
+		System.arraycopy(mKeys, 0, keys, 0, mCount);
+		System.arraycopy(mValues, 0, values, 0, mCount);
+		System.arraycopy(mLastAccess, 0, lastAccess, 0, mCount);
+		mKeys = keys;
+		mValues = values;
+		mLastAccess = lastAccess;
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+/**
+ * Decorations of the days of one month, filled in by a {@link DayDecorationProvider}.
+ * A day shows either a short label, like a price, or a dot under its number.
+ */
+public final class MonthDecorations {
+	private static final int MAX_DAYS_IN_MONTH = 31;
+
+	private int mDotMask;
+	private String[] mLabels;
+
+	MonthDecorations() {}
+
+	public void setDot(int day) {
+		mDotMask |= MonthMaskSet.bit(day);
+	}
+
+	public void setLabel(int day, String label) {
+		if (mLabels == null) {
+			mLabels = new String[MAX_DAYS_IN_MONTH];
+		}
+		mLabels[day - 1] = label;
+	}
+
+	int getDotMask() {
+		return mDotMask;
+	}
+
+	String getLabel(int day) {
+		return mLabels == null ? null : mLabels[day - 1];
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable month layout index shared by all month views.
+ *
+ * For every month and every week start the offset of the 1st, the number of
+ * rows and the number of days are packed into one byte. The table is split
+ * into century blocks which are built on first use, so binding a month is a
+ * plain array lookup.
+ */
+final class MonthLayout {
+	static final int MIN_YEAR = 1;
+	static final int MAX_YEAR = 9999;
+
+	private static final int DAYS_IN_WEEK = 7;
+	private static final int MONTHS_IN_YEAR = 12;
+	private static final int YEARS_PER_BLOCK = 100;
+	private static final int MONTHS_PER_BLOCK = YEARS_PER_BLOCK * MONTHS_IN_YEAR;
+
+	// bits 0-2: offset of the 1st, bits 3-5: rows, bits 6-7: days - 28
+	private static final int OFFSET_MASK = 0x07;
+	private static final int ROWS_SHIFT = 3;
+	private static final int ROWS_MASK = 0x07;
+	private static final int DAYS_SHIFT = 6;
+	private static final int MIN_DAYS_IN_MONTH = 28;
+
+	private static final AtomicReferenceArray<byte[]> sBlocks =
+			new AtomicReferenceArray<byte[]>(MAX_YEAR / YEARS_PER_BLOCK + 1);
+
+	private MonthLayout() {}
+
+	/**
+	 * Number of empty cells before the 1st, for a week starting on weekStart (Calendar.SUNDAY - Calendar.SATURDAY).
+	 */
+	static int getDayOffset(int year, int month, int weekStart) {
+		return get(year, month, weekStart) & OFFSET_MASK;
+	}
+
+	static int getNumRows(int year, int month, int weekStart) {
+		return (get(year, month, weekStart) >> ROWS_SHIFT) & ROWS_MASK;
+	}
+
+	static int getDaysInMonth(int year, int month) {
+		return (get(year, month, Calendar.SUNDAY) >> DAYS_SHIFT) + MIN_DAYS_IN_MONTH;
+	}
+
+	private static int get(int year, int month, int weekStart) {
+		if (year < MIN_YEAR || year > MAX_YEAR) {
+			throw new IllegalArgumentException("Invalid Year");
+		}
+		if (month < Calendar.JANUARY || month > Calendar.DECEMBER) {
+			throw new IllegalArgumentException("Invalid Month");
+		}
+		if (weekStart < Calendar.SUNDAY || weekStart > Calendar.SATURDAY) {
+			throw new IllegalArgumentException("Invalid Week Start");
+		}
+
+		int blockIndex = year / YEARS_PER_BLOCK;
+		byte[] block = sBlocks.get(blockIndex);
+		if (block == null) {
+			block = buildBlock(blockIndex);
+			if (!sBlocks.compareAndSet(blockIndex, null, block)) {
+				block = sBlocks.get(blockIndex);
+			}
+		}
+
+		int monthIndex = (year % YEARS_PER_BLOCK) * MONTHS_IN_YEAR + month;
+		return block[monthIndex * DAYS_IN_WEEK + weekStart - 1] & 0xFF;
+	}
+
+	private static byte[] buildBlock(int blockIndex) {
+		byte[] block = new byte[MONTHS_PER_BLOCK * DAYS_IN_WEEK];
+		int firstYear = blockIndex * YEARS_PER_BLOCK;
+
+		for (int i = 0; i < MONTHS_PER_BLOCK; i++) {
+			int year = firstYear + i / MONTHS_IN_YEAR;
+			if (year < MIN_YEAR) {
+				continue;
+			}
+			int month = i % MONTHS_IN_YEAR;
+
+			// 1号是星期几 从1-7对应 日-六
+			int dayOfWeekStart = CalendarMath.getDayOfWeek(year, month, 1);
+			int numDays = CalendarMath.getDaysInMonth(year, month);
+
+			for (int weekStart = Calendar.SUNDAY; weekStart <= Calendar.SATURDAY; weekStart++) {
+				int offset = (dayOfWeekStart - weekStart + DAYS_IN_WEEK) % DAYS_IN_WEEK;
+				int rows = (offset + numDays + DAYS_IN_WEEK - 1) / DAYS_IN_WEEK;
+				block[i * DAYS_IN_WEEK + weekStart - 1] =
+						(byte) (offset | (rows << ROWS_SHIFT) | ((numDays - MIN_DAYS_IN_MONTH) << DAYS_SHIFT));
+			}
+		}
+		return block;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.OverScroller;
+
+/**
+ * Scroll physics and navigation shared by {@link DayPickerView} and
+ * {@link MonthRecyclerView}: where a fling stops, which month a goTo jumps
+ * to first and which month covers the most of the list.
+ */
+final class MonthListScroller {
+	// an animated goTo farther than this jumps first and only animates the last months
+	private static final int GOTO_ANIMATED_MONTHS = 3;
+	// upper bound when solving for a fling velocity, far above any real fling
+	private static final int MAX_SOLVED_FLING_VELOCITY = 1 << 20;
+
+	private final Context mContext;
+	private final DatePickerController mController;
+	private final SimpleMonthAdapter mAdapter;
+
+	private MonthMetrics mMonthMetrics;
+	private OverScroller mFlingPredictor;
+	private float mFlingFriction;
+
+	MonthListScroller(Context context, DatePickerController controller, SimpleMonthAdapter adapter) {
+		mContext = context;
+		mController = controller;
+		mAdapter = adapter;
+	}
+
+	/**
+	 * Heights of the months as the adapter's views measure them.
+	 */
+	MonthMetrics getMonthMetrics() {
+		MonthViewStyle style = MonthViewStyle.get(mContext, mController.getColor());
+		int minYear = mController.getMinYear();
+		int weekStart = mController.getFirstDayOfWeek();
+		boolean uniform = mController.isUniformMonthHeight();
+		if (mMonthMetrics == null || !mMonthMetrics.matches(minYear, weekStart, style.rowHeight, style.monthHeaderSize, uniform)) {
+			mMonthMetrics = new MonthMetrics(minYear, weekStart, style.rowHeight, style.monthHeaderSize, uniform);
+		}
+		return mMonthMetrics;
+	}
+
+	/**
+	 * Where an animated scroll from firstPosition to position jumps before it
+	 * animates, so it never binds every month on the way.
+	 *
+	 * @return the position to jump to, or -1 when position is close enough to animate all the way
+	 */
+	int getGoToJumpPosition(int firstPosition, int position) {
+		if (Math.abs(position - firstPosition) <= GOTO_ANIMATED_MONTHS) {
+			return -1;
+		}
+		return position > firstPosition ? position - GOTO_ANIMATED_MONTHS : position + GOTO_ANIMATED_MONTHS;
+	}
+
+	/**
+	 * The month covering the most of list, whose children are months in order starting at firstPosition.
+	 */
+	int getMostVisiblePosition(ViewGroup list, int firstPosition) {
+		final int height = list.getHeight();
+		View firstChild = list.getChildAt(0);
+		if (firstChild == null) {
+			return firstPosition;
+		}
+
+		MonthMetrics metrics = getMonthMetrics();
+		if (metrics.isUniform()) {
+			// the month under the middle of the list covers the most of it
+			int scrollOffset = metrics.getOffset(firstPosition) - firstChild.getTop();
+			return Math.min(metrics.getPosition(scrollOffset + height / 2), mAdapter.getCount() - 1);
+		}
+
+		int maxDisplayedHeight = 0;
+		int mostVisibleIndex = 0;
+		for (int i = 0; i < list.getChildCount(); i++) {
+			View child = list.getChildAt(i);
+			int displayedHeight = Math.min(child.getBottom(), height) - Math.max(0, child.getTop());
+			if (displayedHeight > maxDisplayedHeight) {
+				mostVisibleIndex = i;
+				maxDisplayedHeight = displayedHeight;
+			}
+		}
+		return firstPosition + mostVisibleIndex;
+	}
+
+	/**
+	 * How far a fling at velocity should go so it stops with a month at the top of list.
+	 *
+	 * @param firstPosition the month shown by the first child of list
+	 * @param velocity in pixels per second, positive towards later months
+	 */
+	int getFlingSnapDistance(ViewGroup list, int firstPosition, int velocity) {
+		return getMonthMetrics().getSnapDistance(firstPosition, list.getChildAt(0).getTop(), getFlingDistance(velocity),
+				mAdapter.getCount());
+	}
+
+	/**
+	 * The velocity whose fling travels distance, so a list can fling straight onto a month start.
+	 */
+	int getFlingVelocity(int distance) {
+		int target = Math.abs(distance);
+		// the distance grows with the velocity, so a binary search finds it
+		int low = 0;
+		int high = MAX_SOLVED_FLING_VELOCITY;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (getFlingDistance(mid) < target) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return distance < 0 ? -low : low;
+	}
+
+	/**
+	 * How long a fling at velocity lasts, in milliseconds.
+	 */
+	int getFlingDuration(int velocity) {
+		OverScroller predictor = getFlingPredictor();
+		predictor.fling(0, 0, 0, velocity, 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		int duration = predictor.getDuration();
+		predictor.forceFinished(true);
+		return duration;
+	}
+
+	/**
+	 * The friction the list flings with, ViewConfiguration.getScrollFriction() unless set.
+	 */
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	void setFlingFriction(float friction) {
+		mFlingFriction = friction;
+		if (mFlingPredictor != null) {
+			mFlingPredictor.setFriction(friction);
+		}
+	}
+
+	private int getFlingDistance(int velocity) {
+		OverScroller predictor = getFlingPredictor();
+		predictor.fling(0, 0, 0, velocity, 0, 0, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		predictor.forceFinished(true);
+		return predictor.getFinalY();
+	}
+
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	private OverScroller getFlingPredictor() {
+		if (mFlingPredictor == null) {
+			// the same scroller AbsListView and RecyclerView fling with
+			mFlingPredictor = new OverScroller(mContext);
+			if (mFlingFriction > 0) {
+				mFlingPredictor.setFriction(mFlingFriction);
+			}
+		}
+		return mFlingPredictor;
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+/**
+ * What the dialog needs from its scrolling list of months, so the ListView
+ * based {@link DayPickerView} and the RecyclerView based
+ * {@link MonthRecyclerView} are interchangeable. Implementations are Views.
+ */
+interface MonthListView extends DatePickerDialog.OnDateChangedListener {
+	void onDayDecorationProviderChanged();
+
+	void onSelectedDaysChanged();
+
+	void onDayStatesChanged();
+
+	/**
+	 * The year range or first day of week changed, every month is bound again.
+	 */
+	void onChanged();
+
+	void postSetSelection(int position);
+
+	int getMostVisiblePosition();
+}
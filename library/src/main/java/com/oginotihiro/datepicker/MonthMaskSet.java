@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+/**
+ * Set of days stored as one int per month, bit (day - 1) set for each member.
+ *
+ * Masks are kept in century blocks indexed by month ordinal, allocated when
+ * the first day of the century is added, so a sparse set over a long range
+ * stays small and reading a month is one array access.
+ */
+final class MonthMaskSet {
+	private static final int MONTHS_IN_YEAR = 12;
+	private static final int YEARS_PER_BLOCK = 100;
+	private static final int MONTHS_PER_BLOCK = YEARS_PER_BLOCK * MONTHS_IN_YEAR;
+
+	private final int[][] mBlocks = new int[MonthLayout.MAX_YEAR / YEARS_PER_BLOCK + 1][];
+	private int mSize;
+
+	int getMask(int year, int month) {
+		int[] block = mBlocks[year / YEARS_PER_BLOCK];
+		return block == null ? 0 : block[indexInBlock(year, month)];
+	}
+
+	void setMask(int year, int month, int mask) {
+		int[] block = mBlocks[year / YEARS_PER_BLOCK];
+		if (block == null) {
+			if (mask == 0) {
+				return;
+			}
+			block = new int[MONTHS_PER_BLOCK];
+			mBlocks[year / YEARS_PER_BLOCK] = block;
+		}
+		int index = indexInBlock(year, month);
+		mSize += Integer.bitCount(mask) - Integer.bitCount(block[index]);
+		block[index] = mask;
+	}
+
+	boolean contains(int year, int month, int day) {
+		return (getMask(year, month) & bit(day)) != 0;
+	}
+
+	/**
+	 * @return true if the set changed
+	 */
+	boolean add(int year, int month, int day) {
+		int mask = getMask(year, month);
+		if ((mask & bit(day)) != 0) {
+			return false;
+		}
+		setMask(year, month, mask | bit(day));
+		return true;
+	}
+
+	/**
+	 * @return true if the set changed
+	 */
+	boolean remove(int year, int month, int day) {
+		int mask = getMask(year, month);
+		if ((mask & bit(day)) == 0) {
+			return false;
+		}
+		setMask(year, month, mask & ~bit(day));
+		return true;
+	}
+
+	boolean containsEpochDay(int epochDay) {
+		return contains(CalendarMath.getYear(epochDay), CalendarMath.getMonth(epochDay), CalendarMath.getDayOfMonth(epochDay));
+	}
+
+	boolean addEpochDay(int epochDay) {
+		return add(CalendarMath.getYear(epochDay), CalendarMath.getMonth(epochDay), CalendarMath.getDayOfMonth(epochDay));
+	}
+
+	boolean removeEpochDay(int epochDay) {
+		return remove(CalendarMath.getYear(epochDay), CalendarMath.getMonth(epochDay), CalendarMath.getDayOfMonth(epochDay));
+	}
+
+	/**
+	 * Adds or removes every epoch day in epochDays.
+	 *
+	 * @return true if the set changed
+	 */
+	boolean setEpochDays(int[] epochDays, boolean member) {
+		boolean changed = false;
+		for (int epochDay : epochDays) {
+			changed |= member ? addEpochDay(epochDay) : removeEpochDay(epochDay);
+		}
+		return changed;
+	}
+
+	/**
+	 * The members as ascending epoch days.
+	 */
+	int[] toEpochDays() {
+		int[] epochDays = new int[mSize];
+		int count = 0;
+		for (int b = 0; b < mBlocks.length; b++) {
+			int[] block = mBlocks[b];
+			if (block == null) {
+				continue;
+			}
+			for (int i = 0; i < MONTHS_PER_BLOCK; i++) {
+				int mask = block[i];
+				while (mask != 0) {
+					int day = Integer.numberOfTrailingZeros(mask) + 1;
+					epochDays[count++] = CalendarMath.toEpochDay(b * YEARS_PER_BLOCK + i / MONTHS_IN_YEAR, i % MONTHS_IN_YEAR, day);
+					mask &= mask - 1;
+				}
+			}
+		}
+		return epochDays;
+	}
+
+	void forEach(DayVisitor visitor) {
+		for (int b = 0; b < mBlocks.length; b++) {
+			int[] block = mBlocks[b];
+			if (block == null) {
+				continue;
+			}
+			for (int i = 0; i < MONTHS_PER_BLOCK; i++) {
+				int mask = block[i];
+				while (mask != 0) {
+					visitor.visit(b * YEARS_PER_BLOCK + i / MONTHS_IN_YEAR, i % MONTHS_IN_YEAR, Integer.numberOfTrailingZeros(mask) + 1);
+					mask &= mask - 1;
+				}
+			}
+		}
+	}
+
+	void clear() {
+		for (int i = 0; i < mBlocks.length; i++) {
+			mBlocks[i] = null;
+		}
+		mSize = 0;
+	}
+
+	int size() {
+		return mSize;
+	}
+
+	boolean isEmpty() {
+		return mSize == 0;
+	}
+
+	static int bit(int day) {
+		return 1 << (day - 1);
+	}
+
+	private static int indexInBlock(int year, int month) {
+		return (year % YEARS_PER_BLOCK) * MONTHS_IN_YEAR + month;
+	}
+}
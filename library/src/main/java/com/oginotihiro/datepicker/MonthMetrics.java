@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+/**
+ * Pixel heights of the months in a month list, from {@link MonthLayout}
+ * alone, so scroll targets can be worked out without laying out children.
+ */
+final class MonthMetrics {
+	private final int mMinYear;
+	private final int mWeekStart;
+	private final int mRowHeight;
+	private final int mHeaderHeight;
+	private final boolean mUniform;
+
+	/**
+	 * @param uniform every month is given six rows, as {@link SimpleMonthView#setUniformHeight} does
+	 */
+	MonthMetrics(int minYear, int weekStart, int rowHeight, int headerHeight, boolean uniform) {
+		mMinYear = minYear;
+		mWeekStart = weekStart;
+		mRowHeight = rowHeight;
+		mHeaderHeight = headerHeight;
+		mUniform = uniform;
+	}
+
+	boolean matches(int minYear, int weekStart, int rowHeight, int headerHeight, boolean uniform) {
+		return mMinYear == minYear && mWeekStart == weekStart && mRowHeight == rowHeight && mHeaderHeight == headerHeight
+				&& mUniform == uniform;
+	}
+
+	boolean isUniform() {
+		return mUniform;
+	}
+
+	/**
+	 * The height {@link SimpleMonthView#onMeasure} gives the month at position.
+	 */
+	int getHeight(int position) {
+		if (mUniform) {
+			return MonthViewStyle.DEFAULT_NUM_ROWS * mRowHeight + mHeaderHeight;
+		}
+		int year = mMinYear + position / SimpleMonthAdapter.MONTHS_IN_YEAR;
+		int month = position % SimpleMonthAdapter.MONTHS_IN_YEAR;
+		return MonthLayout.getNumRows(year, month, mWeekStart) * mRowHeight + mHeaderHeight;
+	}
+
+	/**
+	 * Where a scroll should stop so a month starts at the top of the list.
+	 *
+	 * @param firstPosition a month on screen, with its top at firstTop
+	 * @param distance how far the scroll would go on its own, positive towards later months
+	 * @param count the number of months in the list
+	 * @return the distance that lands the month top closest to distance at the top of the list
+	 */
+	int getSnapDistance(int firstPosition, int firstTop, int distance, int count) {
+		if (mUniform) {
+			int scrollOffset = getOffset(firstPosition) - firstTop;
+			int height = getHeight(0);
+			int target = Math.max(0, Math.min(count - 1, (scrollOffset + distance + height / 2) / height));
+			return getOffset(target) - scrollOffset;
+		}
+
+		int position = firstPosition;
+		int top = firstTop;
+		if (top < distance) {
+			while (position < count - 1) {
+				int nextTop = top + getHeight(position);
+				if (nextTop >= distance) {
+					return nextTop - distance < distance - top ? nextTop : top;
+				}
+				top = nextTop;
+				position++;
+			}
+		} else {
+			while (position > 0) {
+				int previousTop = top - getHeight(position - 1);
+				if (previousTop <= distance) {
+					return distance - previousTop < top - distance ? previousTop : top;
+				}
+				top = previousTop;
+				position--;
+			}
+		}
+		return top;
+	}
+
+	/**
+	 * Top of the month at position, measured from the top of the first month. Uniform mode only.
+	 */
+	int getOffset(int position) {
+		checkUniform();
+		return position * getHeight(0);
+	}
+
+	/**
+	 * The month covering the given offset from the top of the first month. Uniform mode only.
+	 */
+	int getPosition(int offset) {
+		checkUniform();
+		return offset <= 0 ? 0 : offset / getHeight(0);
+	}
+
+	private void checkUniform() {
+		if (!mUniform) {
+			throw new IllegalStateException("Month heights differ, offsets need the months laid out");
+		}
+	}
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import android.content.Context;
+import android.graphics.PointF;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.LinearSmoothScroller;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+/**
+ * RecyclerView alternative to {@link DayPickerView}.
+ *
+ * Whenever the main thread goes idle with the list at rest, the next months
+ * in the scroll direction are created, bound, measured and laid out, then
+ * parked in the RecyclerView's view cache. A scroll frame that brings them
+ * in only attaches them. Opening the picker only binds what is visible.
+ * Months have stable ids and the view pool may be shared between pickers
+ * of the same activity.
+ */
+public class MonthRecyclerView extends RecyclerView implements MonthListView {
+	// months bound ahead while idle, on top of the months the cache keeps after scrolling past them
+	private static final int PREFETCH_MONTHS = 2;
+	private static final int SCROLLED_PAST_CACHE_SIZE = 2;
+
+	private final DatePickerController mController;
+
+	private final SimpleMonthAdapter mMonthAdapter;
+	private final MonthListScroller mScroller;
+	private final MonthAdapter mAdapter;
+	private final PrefetchLayoutManager mLayoutManager;
+
+	private final GoToRunnable mGoToRunnable = new GoToRunnable();
+
+	private final int mMinimumFlingVelocity;
+
+	// the visible month and direction the cached months were bound from
+	private int mPrefetchAnchor = NO_POSITION;
+	private int mPrefetchDirection;
+	private int mScrollDirection = 1;
+
+	private final MessageQueue.IdleHandler mPrefetchOnIdle = new MessageQueue.IdleHandler() {
+		@Override
+		public boolean queueIdle() {
+			prefetch();
+			// stay registered, the next months are due whenever a scroll settles
+			return true;
+		}
+	};
+
+	public MonthRecyclerView(Context context, DatePickerController datePickerController) {
+		this(context, datePickerController, null);
+	}
+
+	/**
+	 * @param pool shared with other pickers of the same activity, or null for a pool of its own
+	 */
+	public MonthRecyclerView(Context context, DatePickerController datePickerController, RecycledViewPool pool) {
+		super(context);
+
+		mController = datePickerController;
+
+		setLayoutParams(new ViewGroup.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+
+		mMinimumFlingVelocity = ViewConfiguration.get(context).getScaledMinimumFlingVelocity();
+
+		mLayoutManager = new PrefetchLayoutManager(context);
+		setLayoutManager(mLayoutManager);
+		setHasFixedSize(true);
+		setItemViewCacheSize(SCROLLED_PAST_CACHE_SIZE + PREFETCH_MONTHS);
+		setVerticalScrollBarEnabled(false);
+		if (pool != null) {
+			setRecycledViewPool(pool);
+		}
+
+		mMonthAdapter = new SimpleMonthAdapter(context, mController);
+		mScroller = new MonthListScroller(context, mController, mMonthAdapter);
+		mAdapter = new MonthAdapter();
+		setAdapter(mAdapter);
+
+		onDateChanged(DateChangeEvent.refresh(getControllerDay()));
+	}
+
+	@Override
+	public void onDateChanged(DateChangeEvent event) {
+		if (mMonthAdapter.onDateChanged(event)) {
+			goTo(event.getNewDay(), false, true, false);
+		}
+	}
+
+	private CalendarDay getControllerDay() {
+		return CalendarDay.of(mController.getSelectedYear(), mController.getSelectedMonth(), mController.getSelectedDayOfMonth());
+	}
+
+	public boolean goTo(CalendarDay day, boolean animate, boolean setSelected, boolean forceScroll) {
+		if (setSelected) {
+			mMonthAdapter.updateSelectedDay(day);
+		}
+
+		final int position = mMonthAdapter.getPosition(day);
+		if (position != mLayoutManager.findFirstCompletelyVisibleItemPosition() || forceScroll) {
+			if (animate) {
+				removeCallbacks(mGoToRunnable);
+				mGoToRunnable.mPosition = position;
+				int first = mLayoutManager.findFirstVisibleItemPosition();
+				int jumpPosition = first != NO_POSITION ? mScroller.getGoToJumpPosition(first, position) : -1;
+				if (jumpPosition >= 0) {
+					// animate after the layout that lands on jumpPosition
+					mLayoutManager.scrollToPositionWithOffset(jumpPosition, 0);
+					post(mGoToRunnable);
+				} else {
+					mGoToRunnable.run();
+				}
+				return true;
+			}
+			postSetSelection(position);
+		}
+		return false;
+	}
+
+	private class GoToRunnable implements Runnable {
+		private int mPosition;
+
+		@Override
+		public void run() {
+			// the default scroller stops a later month at the bottom, DayPickerView stops it at the top
+			LinearSmoothScroller scroller = new LinearSmoothScroller(getContext()) {
+				@Override
+				public PointF computeScrollVectorForPosition(int targetPosition) {
+					return mLayoutManager.computeScrollVectorForPosition(targetPosition);
+				}
+
+				@Override
+				protected int getVerticalSnapPreference() {
+					return SNAP_TO_START;
+				}
+			};
+			scroller.setTargetPosition(mPosition);
+			mLayoutManager.startSmoothScroll(scroller);
+		}
+	}
+
+	@Override
+	public void postSetSelection(int position) {
+		clearFocus();
+		mLayoutManager.scrollToPositionWithOffset(position, 0);
+	}
+
+	@Override
+	public void onScrolled(int dx, int dy) {
+		super.onScrolled(dx, dy);
+		if (dy != 0) {
+			mScrollDirection = dy > 0 ? 1 : -1;
+		}
+		mMonthAdapter.setVisibleRange(mLayoutManager.findFirstVisibleItemPosition(), mLayoutManager.findLastVisibleItemPosition());
+	}
+
+	/**
+	 * A fling is replaced with one just fast enough to stop at the month start
+	 * closest to where it would have stopped, as in {@link DayPickerView}.
+	 */
+	@Override
+	public boolean fling(int velocityX, int velocityY) {
+		View child = getChildAt(0);
+		if (child == null || Math.abs(velocityY) < mMinimumFlingVelocity) {
+			return super.fling(velocityX, velocityY);
+		}
+		int distance = mScroller.getFlingSnapDistance(this, getChildAdapterPosition(child), velocityY);
+		return super.fling(0, mScroller.getFlingVelocity(distance));
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		Looper.myQueue().addIdleHandler(mPrefetchOnIdle);
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		Looper.myQueue().removeIdleHandler(mPrefetchOnIdle);
+		removeCallbacks(mGoToRunnable);
+		mMonthAdapter.cancelDecorationLoads();
+	}
+
+	@Override
+	public void onDayDecorationProviderChanged() {
+		mMonthAdapter.setDayDecorationProvider(mController.getDayDecorationProvider());
+	}
+
+	@Override
+	public void onSelectedDaysChanged() {
+		mMonthAdapter.updateSelectedDays();
+	}
+
+	@Override
+	public void onDayStatesChanged() {
+		mMonthAdapter.updateDayStates();
+	}
+
+	@Override
+	public void onChanged() {
+		// the cached months are rebound once they come into view, bind them again ahead of that
+		mPrefetchAnchor = NO_POSITION;
+		mAdapter.notifyDataSetChanged();
+	}
+
+	/**
+	 * Binds the next PREFETCH_MONTHS months past the visible ones into the
+	 * view cache, unless that was already done from the same place.
+	 */
+	private void prefetch() {
+		Recycler recycler = mLayoutManager.getRecycler();
+		if (recycler == null || getScrollState() != SCROLL_STATE_IDLE || getChildCount() == 0 || isLayoutRequested()) {
+			return;
+		}
+		int anchor = mScrollDirection > 0
+				? mLayoutManager.findLastVisibleItemPosition()
+				: mLayoutManager.findFirstVisibleItemPosition();
+		if (anchor == NO_POSITION || (anchor == mPrefetchAnchor && mScrollDirection == mPrefetchDirection)) {
+			return;
+		}
+		mPrefetchAnchor = anchor;
+		mPrefetchDirection = mScrollDirection;
+
+		int widthSpec = MeasureSpec.makeMeasureSpec(getWidth() - getPaddingLeft() - getPaddingRight(), MeasureSpec.EXACTLY);
+		int heightSpec = MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED);
+		int count = mAdapter.getItemCount();
+		for (int i = 1; i <= PREFETCH_MONTHS; i++) {
+			int position = anchor + i * mScrollDirection;
+			if (position < 0 || position >= count) {
+				break;
+			}
+			View view = recycler.getViewForPosition(position);
+			// the specs LinearLayoutManager measures months with, so attaching the view skips the measure pass
+			view.measure(widthSpec, heightSpec);
+			view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+			recycler.recycleView(view);
+		}
+	}
+
+	@Override
+	public int getMostVisiblePosition() {
+		View firstChild = getChildAt(0);
+		if (firstChild == null) {
+			return 0;
+		}
+		return mScroller.getMostVisiblePosition(this, getChildAdapterPosition(firstChild));
+	}
+
+	/**
+	 * Keeps the recycler it lays out with, prefetching binds views through it outside of layout.
+	 */
+	private static class PrefetchLayoutManager extends LinearLayoutManager {
+		private Recycler mRecycler;
+
+		PrefetchLayoutManager(Context context) {
+			super(context);
+		}
+
+		Recycler getRecycler() {
+			return mRecycler;
+		}
+
+		@Override
+		public void onLayoutChildren(Recycler recycler, State state) {
+			mRecycler = recycler;
+			super.onLayoutChildren(recycler, state);
+		}
+	}
+
+	private static class MonthViewHolder extends ViewHolder {
+		final SimpleMonthView monthView;
+		SimpleMonthAdapter owner;
+
+		MonthViewHolder(SimpleMonthView monthView, SimpleMonthAdapter owner) {
+			super(monthView);
+			this.monthView = monthView;
+			this.owner = owner;
+		}
+	}
+
+	/**
+	 * One item per month of the controller's range. The view type is the
+	 * picker color, so a shared pool only hands out months drawn in it.
+	 */
+	private class MonthAdapter extends Adapter<MonthViewHolder> {
+		MonthAdapter() {
+			setHasStableIds(true);
+		}
+
+		@Override
+		public int getItemCount() {
+			return mMonthAdapter.getCount();
+		}
+
+		@Override
+		public long getItemId(int position) {
+			return mController.getMinYear() * SimpleMonthAdapter.MONTHS_IN_YEAR + position;
+		}
+
+		@Override
+		public int getItemViewType(int position) {
+			return mController.getColor();
+		}
+
+		@Override
+		public MonthViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+			SimpleMonthView v = mMonthAdapter.createMonthView();
+			v.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+			return new MonthViewHolder(v, mMonthAdapter);
+		}
+
+		@Override
+		public void onBindViewHolder(MonthViewHolder holder, int position) {
+			if (holder.owner != mMonthAdapter) {
+				holder.owner.releaseMonthView(holder.monthView);
+				mMonthAdapter.adoptMonthView(holder.monthView);
+				holder.owner = mMonthAdapter;
+			}
+			mMonthAdapter.bindMonthView(holder.monthView, position);
+		}
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.Locale;
+
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+
+/**
+ * Process wide LRU of pre-rendered month grids (title, weekday row and day
+ * numbers), limited by a byte budget. Month views blit the cached layer and
+ * only draw the selection and today marker on top.
+ *
+ * Evicted bitmaps are not recycled because a visible month may still be
+ * drawing them, they are simply left to the garbage collector.
+ */
+final class MonthRenderCache extends LongLruCache<Bitmap> {
+	private static final int MAX_THEMES = 1 << 14;
+
+	private static MonthRenderCache sInstance;
+
+	private int[] mThemes = new int[4];
+	private int mThemeCount;
+	private Locale mLocale;
+	private Configuration mConfiguration;
+
+	private MonthRenderCache(int maxBytes) {
+		super(maxBytes);
+	}
+
+	/**
+	 * Shared instance, resized to maxBytes.
+	 */
+	static MonthRenderCache getInstance(int maxBytes) {
+		if (sInstance == null) {
+			sInstance = new MonthRenderCache(maxBytes);
+		} else if (sInstance.maxSize() != maxBytes) {
+			sInstance.resize(maxBytes);
+		}
+		return sInstance;
+	}
+
+	/**
+	 * Drops every layer when the configuration or the default locale changed
+	 * since the last call. Font scale and density change the text without
+	 * changing the key, so layers are only valid for one configuration, the
+	 * same way {@link MonthViewStyle} keeps its paints.
+	 *
+	 * @return true if the layers were dropped
+	 */
+	boolean checkConfiguration(Configuration configuration) {
+		Locale locale = Locale.getDefault();
+		if (mLocale == locale && mConfiguration != null && mConfiguration.equals(configuration)) {
+			return false;
+		}
+		evictAll();
+		mLocale = locale;
+		mConfiguration = new Configuration(configuration);
+		return true;
+	}
+
+	/**
+	 * Packs everything the static layer depends on into one key.
+	 *
+	 * @param today day of month drawn by the overlay instead of the layer, or -1
+	 * @param theme color the layer's text is drawn with
+	 */
+	long makeKey(int year, int month, int weekStart, int today, int width, int rowHeight, int theme) {
+		long key = year * SimpleMonthAdapter.MONTHS_IN_YEAR + month; // 17 bits
+		key = (key << 3) | weekStart - 1;
+		key = (key << 5) | (today > 0 ? today : 0);
+		key = (key << 14) | (width & 0x3FFF);
+		key = (key << 10) | (rowHeight & 0x3FF);
+		key = (key << 14) | getThemeId(theme);
+		return key;
+	}
+
+	private int getThemeId(int theme) {
+		for (int i = 0; i < mThemeCount; i++) {
+			if (mThemes[i] == theme) {
+				return i;
+			}
+		}
+		if (mThemeCount == MAX_THEMES) {
+			evictAll();
+			mThemeCount = 0;
+		} else if (mThemeCount == mThemes.length) {
+			int[] themes = new int[mThemeCount * 2];
+			System.arraycopy(mThemes, 0, themes, 0, mThemeCount);
+			mThemes = themes;
+		}
+		mThemes[mThemeCount] = theme;
+		return mThemeCount++;
+	}
+
+	@Override
+	protected int sizeOf(long key, Bitmap value) {
+		return value.getRowBytes() * value.getHeight();
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.Paint;
+import android.graphics.Paint.Align;
+import android.graphics.Paint.Style;
+import android.graphics.Typeface;
+
+/**
+ * Metrics and paints of a month view, resolved once per resources
+ * configuration and color and shared by every {@link SimpleMonthView}.
+ *
+ * Nothing in here may be modified after construction, month views only
+ * read it on the UI thread.
+ */
+@SuppressWarnings("deprecation")
+final class MonthViewStyle {
+	static final int DEFAULT_NUM_ROWS = 6;
+	private static final int SELECTED_CIRCLE_ALPHA = 60;
+	private static final int PRESSED_CIRCLE_ALPHA = 30;
+	private static final int RANGE_ALPHA = 30;
+
+	private static final ArrayList<MonthViewStyle> sStyles = new ArrayList<MonthViewStyle>();
+	private static Configuration sConfiguration;
+
+	final int color;
+
+	final int monthHeaderSize;
+	final int monthLabelTextSize;
+	final int monthDayLabelTextSize;
+	final int dayNumberTextSize;
+	final int daySelectedCircleSize;
+	final int rowHeight;
+	final int highlightDotRadius;
+	final int decorationLabelTextSize;
+
+	final int dayTextColor;
+	final int disabledDayTextColor;
+	final int todayNumberColor;
+
+	final Paint monthTitlePaint;
+	final Paint monthDayLabelPaint;
+	final Paint monthNumPaint;
+	final Paint todayNumPaint;
+	final Paint disabledNumPaint;
+	final Paint selectedCirclePaint;
+	final Paint pressedCirclePaint;
+	final Paint rangePaint;
+	final Paint highlightDotPaint;
+	final Paint decorationLabelPaint;
+
+	static MonthViewStyle get(Context context, int color) {
+		Resources resources = context.getResources();
+		Configuration configuration = resources.getConfiguration();
+		if (sConfiguration == null || !sConfiguration.equals(configuration)) {
+			sStyles.clear();
+			sConfiguration = new Configuration(configuration);
+		}
+
+		for (int i = 0; i < sStyles.size(); i++) {
+			MonthViewStyle style = sStyles.get(i);
+			if (style.color == color) {
+				return style;
+			}
+		}
+		MonthViewStyle style = new MonthViewStyle(resources, color);
+		sStyles.add(style);
+		return style;
+	}
+
+	private MonthViewStyle(Resources resources, int color) {
+		this.color = color;
+
+		monthHeaderSize = resources.getDimensionPixelOffset(R.dimen.month_list_item_header_height);
+		monthLabelTextSize = resources.getDimensionPixelSize(R.dimen.month_label_size);
+		monthDayLabelTextSize = resources.getDimensionPixelSize(R.dimen.month_day_label_text_size);
+		dayNumberTextSize = resources.getDimensionPixelSize(R.dimen.day_number_size);
+		daySelectedCircleSize = resources.getDimensionPixelSize(R.dimen.day_number_select_circle_radius);
+
+		// 270dp - 50dp
+		rowHeight = (resources.getDimensionPixelOffset(R.dimen.date_picker_view_animator_height) - monthHeaderSize) / DEFAULT_NUM_ROWS;
+
+		highlightDotRadius = Math.max(1, dayNumberTextSize / 8);
+		decorationLabelTextSize = monthDayLabelTextSize * 3 / 4;
+
+		dayTextColor = resources.getColor(R.color.date_picker_text_normal);
+		disabledDayTextColor = resources.getColor(R.color.date_picker_text_disabled);
+		todayNumberColor = color;
+
+		String monthTitleTypeface = resources.getString(R.string.sans_serif); // sans-serif 标题
+		String dayOfWeekTypeface = resources.getString(R.string.day_of_week_label_typeface); // sans-serif 日-六
+
+		monthTitlePaint = new Paint();
+		monthTitlePaint.setAntiAlias(true);
+		monthTitlePaint.setFakeBoldText(true);
+		monthTitlePaint.setTextSize(monthLabelTextSize);
+		monthTitlePaint.setTypeface(Typeface.create(monthTitleTypeface, Typeface.BOLD));
+		monthTitlePaint.setColor(dayTextColor);
+		monthTitlePaint.setStyle(Style.FILL);
+		monthTitlePaint.setTextAlign(Align.CENTER);
+
+		monthDayLabelPaint = new Paint();
+		monthDayLabelPaint.setAntiAlias(true);
+		monthDayLabelPaint.setFakeBoldText(true);
+		monthDayLabelPaint.setTextSize(monthDayLabelTextSize);
+		monthDayLabelPaint.setTypeface(Typeface.create(dayOfWeekTypeface, Typeface.NORMAL));
+		monthDayLabelPaint.setColor(dayTextColor);
+		monthDayLabelPaint.setStyle(Style.FILL);
+		monthDayLabelPaint.setTextAlign(Align.CENTER);
+
+		monthNumPaint = new Paint();
+		monthNumPaint.setAntiAlias(true);
+		monthNumPaint.setFakeBoldText(false);
+		monthNumPaint.setTextSize(dayNumberTextSize);
+		monthNumPaint.setColor(dayTextColor);
+		monthNumPaint.setStyle(Style.FILL);
+		monthNumPaint.setTextAlign(Align.CENTER);
+
+		todayNumPaint = new Paint(monthNumPaint);
+		todayNumPaint.setColor(todayNumberColor);
+
+		disabledNumPaint = new Paint(monthNumPaint);
+		disabledNumPaint.setColor(disabledDayTextColor);
+
+		selectedCirclePaint = new Paint();
+		selectedCirclePaint.setAntiAlias(true);
+		selectedCirclePaint.setFakeBoldText(true);
+		selectedCirclePaint.setColor(todayNumberColor);
+		selectedCirclePaint.setStyle(Style.FILL);
+		selectedCirclePaint.setAlpha(SELECTED_CIRCLE_ALPHA);
+
+		pressedCirclePaint = new Paint(selectedCirclePaint);
+		pressedCirclePaint.setAlpha(PRESSED_CIRCLE_ALPHA);
+
+		rangePaint = new Paint(selectedCirclePaint);
+		rangePaint.setAlpha(RANGE_ALPHA);
+
+		highlightDotPaint = new Paint();
+		highlightDotPaint.setAntiAlias(true);
+		highlightDotPaint.setColor(color);
+		highlightDotPaint.setStyle(Style.FILL);
+
+		decorationLabelPaint = new Paint();
+		decorationLabelPaint.setAntiAlias(true);
+		decorationLabelPaint.setTextSize(decorationLabelTextSize);
+		decorationLabelPaint.setColor(color);
+		decorationLabelPaint.setStyle(Style.FILL);
+		decorationLabelPaint.setTextAlign(Align.CENTER);
+	}
+}
@@ -15,7 +15,7 @@
  */
 package com.oginotihiro.datepicker;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 
 import android.content.Context;
 import android.view.View;
@@ -23,7 +23,8 @@ import android.view.ViewGroup;
 import android.widget.AbsListView.LayoutParams;
 import android.widget.BaseAdapter;
 
-public class SimpleMonthAdapter extends BaseAdapter implements SimpleMonthView.OnDayClickListener {
+public class SimpleMonthAdapter extends BaseAdapter implements SimpleMonthView.OnDayClickListener, SimpleMonthView.OnDayTapListener,
+		DecorationLoader.Callback {
 	public static final int MONTHS_IN_YEAR = 12;
 
 	private final Context mContext;
@@ -31,13 +32,18 @@ public class SimpleMonthAdapter extends BaseAdapter implements SimpleMonthView.O
 
 	private CalendarDay mSelectedDay;
 
+	private final ArrayList<SimpleMonthView> mMonthViews = new ArrayList<SimpleMonthView>();
+	private DecorationLoader mDecorationLoader;
+
 	public SimpleMonthAdapter(Context context, DatePickerController datePickerController) {
 		mContext = context;
 		mController = datePickerController;
 
 		init();
 
-		setSelectedDay(mController.getSelectedDay());
+		setSelectedDay(CalendarDay.of(mController.getSelectedYear(), mController.getSelectedMonth(),
+				mController.getSelectedDayOfMonth()));
+		setDayDecorationProvider(mController.getDayDecorationProvider());
 	}
 	
 	private void init() {
@@ -48,6 +54,18 @@ public class SimpleMonthAdapter extends BaseAdapter implements SimpleMonthView.O
 		mSelectedDay = calendarDay;
 		notifyDataSetChanged();
 	}
+
+	/**
+	 * Moves the selection in the month views of this adapter, without rebinding them.
+	 */
+	public void updateSelectedDay(CalendarDay calendarDay) {
+		mSelectedDay = calendarDay;
+		for (int i = 0; i < mMonthViews.size(); i++) {
+			SimpleMonthView monthView = mMonthViews.get(i);
+			boolean inMonth = isSelectedDayInMonth(monthView.getYear(), monthView.getMonth());
+			monthView.setSelectedDay(inMonth ? mSelectedDay.getDay() : -1);
+		}
+	}
 	
 	@Override
 	public int getCount() {
@@ -64,58 +82,198 @@ public class SimpleMonthAdapter extends BaseAdapter implements SimpleMonthView.O
 		return position;
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public View getView(int position, View convertView, ViewGroup parent) {
 		SimpleMonthView v;
-		HashMap<String, Integer> drawingParams = null;
 
 		if (convertView != null) {
 			v = (SimpleMonthView) convertView;
-			drawingParams = (HashMap<String, Integer>) v.getTag();
 		} else {
-			v = new SimpleMonthView(mContext, mController.getColor());
+			v = createMonthView();
 			v.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
-			v.setClickable(true);
-			v.setOnDayClickListener(this);
 		}
-		if (drawingParams == null) {
-			drawingParams = new HashMap<String, Integer>();
+
+		bindMonthView(v, position);
+		return v;
+	}
+
+	/**
+	 * A month view wired to this adapter, the caller sets its layout params.
+	 */
+	SimpleMonthView createMonthView() {
+		SimpleMonthView v = new SimpleMonthView(mContext, mController.getColor());
+		v.setClickable(true);
+		v.setOnDayTapListener(this);
+		mMonthViews.add(v);
+		return v;
+	}
+
+	/**
+	 * The list position of the month day is in.
+	 */
+	int getPosition(CalendarDay day) {
+		return (day.getYear() - mController.getMinYear()) * MONTHS_IN_YEAR + day.getMonth();
+	}
+
+	/**
+	 * Applies the parts of event that don't move the list: the range, the
+	 * multi selection and a selected day that stayed in the same month.
+	 *
+	 * @return true when the selected day moved to another month, so the list should scroll to it
+	 */
+	boolean onDateChanged(DateChangeEvent event) {
+		if (event.hasChanged(DateChangeEvent.RANGE)) {
+			updateRange();
+			// setDateRange may have just switched to range mode, which hides the selected day
+			updateSelectedDay(mSelectedDay);
 		}
-		drawingParams.clear();
-		
+		if (event.hasChanged(DateChangeEvent.SELECTED_DAYS)) {
+			updateSelectedDays();
+		}
+
+		if (event.hasChanged(DateChangeEvent.MONTH | DateChangeEvent.YEAR)) {
+			return true;
+		}
+		if (event.hasChanged(DateChangeEvent.DAY)) {
+			// same month as before, only the circle moves
+			updateSelectedDay(event.getNewDay());
+		}
+		return false;
+	}
+
+	/**
+	 * Takes over a month view another adapter created, views move between pickers through a shared RecyclerView pool.
+	 */
+	void adoptMonthView(SimpleMonthView v) {
+		v.setOnDayTapListener(this);
+		if (!mMonthViews.contains(v)) {
+			mMonthViews.add(v);
+		}
+	}
+
+	void releaseMonthView(SimpleMonthView v) {
+		mMonthViews.remove(v);
+	}
+
+	void bindMonthView(SimpleMonthView v, int position) {
 		final int month = position % MONTHS_IN_YEAR;
 		final int year = position / MONTHS_IN_YEAR + mController.getMinYear();
 
 		int selectedDay = -1;
 		if (isSelectedDayInMonth(year, month)) {
-			selectedDay = mSelectedDay.day;
+			selectedDay = mSelectedDay.getDay();
 		}
 
-		drawingParams.put(SimpleMonthView.VIEW_PARAMS_YEAR, year);
-		drawingParams.put(SimpleMonthView.VIEW_PARAMS_MONTH, month);
-		drawingParams.put(SimpleMonthView.VIEW_PARAMS_SELECTED_DAY, selectedDay);
-		drawingParams.put(SimpleMonthView.VIEW_PARAMS_WEEK_START, mController.getFirstDayOfWeek());
-		v.setMonthParams(drawingParams);
+		v.setRenderCache(mController.getRenderCache());
+		v.setUniformHeight(mController.isUniformMonthHeight());
+		v.bind(year, month, selectedDay, mController.getFirstDayOfWeek());
+		v.setDisabledDays(mController.getDisabledDayMask(year, month));
+		v.setHighlightedDays(mController.getHighlightedDayMask(year, month));
+		v.setSelectedDays(mController.getSelectedDayMask(year, month));
+		v.setRange(mController.getRangeStart(), mController.getRangeEnd());
+		v.setDecorations(mDecorationLoader != null ? mDecorationLoader.get(year, month) : null);
 		v.invalidate();
-		
-		return v;
+	}
+
+	/**
+	 * Re-reads the multi selection of the month views of this adapter, only months whose mask changed are redrawn.
+	 * Views bound ahead of the visible ones are updated as well, so they never come in stale.
+	 */
+	public void updateSelectedDays() {
+		for (int i = 0; i < mMonthViews.size(); i++) {
+			SimpleMonthView monthView = mMonthViews.get(i);
+			monthView.setSelectedDays(mController.getSelectedDayMask(monthView.getYear(), monthView.getMonth()));
+		}
+	}
+
+	/**
+	 * Passes the selected range to the month views of this adapter, only months the change touches are redrawn.
+	 */
+	public void updateRange() {
+		int start = mController.getRangeStart();
+		int end = mController.getRangeEnd();
+		for (int i = 0; i < mMonthViews.size(); i++) {
+			mMonthViews.get(i).setRange(start, end);
+		}
+	}
+
+	/**
+	 * Re-reads the disabled and highlighted days of the month views of this adapter, only months whose masks changed are redrawn.
+	 */
+	public void updateDayStates() {
+		for (int i = 0; i < mMonthViews.size(); i++) {
+			SimpleMonthView monthView = mMonthViews.get(i);
+			monthView.setDisabledDays(mController.getDisabledDayMask(monthView.getYear(), monthView.getMonth()));
+			monthView.setHighlightedDays(mController.getHighlightedDayMask(monthView.getYear(), monthView.getMonth()));
+		}
+	}
+
+	/**
+	 * Drops the loaded decorations and loads the shown months again from provider, null removes the decorations.
+	 */
+	public void setDayDecorationProvider(DayDecorationProvider provider) {
+		if (mDecorationLoader != null) {
+			mDecorationLoader.cancelAll();
+		}
+		mDecorationLoader = provider == null ? null : new DecorationLoader(provider,
+				DecorationLoader.getDefaultBackgroundExecutor(), DecorationLoader.getDefaultMainExecutor(),
+				DecorationLoader.DEFAULT_CACHE_SIZE, this);
+
+		for (int i = 0; i < mMonthViews.size(); i++) {
+			SimpleMonthView monthView = mMonthViews.get(i);
+			monthView.setDecorations(mDecorationLoader != null
+					? mDecorationLoader.get(monthView.getYear(), monthView.getMonth()) : null);
+		}
+	}
+
+	/**
+	 * Keeps decoration loads to the given positions, loads for months scrolled past are dropped.
+	 */
+	public void setVisibleRange(int firstPosition, int lastPosition) {
+		if (mDecorationLoader != null && lastPosition >= firstPosition) {
+			int minYear = mController.getMinYear();
+			mDecorationLoader.setYearRange(minYear, mController.getMaxYear());
+			mDecorationLoader.setVisibleRange(firstPosition / MONTHS_IN_YEAR + minYear, firstPosition % MONTHS_IN_YEAR,
+					lastPosition / MONTHS_IN_YEAR + minYear, lastPosition % MONTHS_IN_YEAR);
+		}
+	}
+
+	public void cancelDecorationLoads() {
+		if (mDecorationLoader != null) {
+			mDecorationLoader.cancelAll();
+		}
+	}
+
+	@Override
+	public void onDecorationsLoaded(int year, int month, MonthDecorations decorations) {
+		for (int i = 0; i < mMonthViews.size(); i++) {
+			SimpleMonthView monthView = mMonthViews.get(i);
+			if (monthView.getYear() == year && monthView.getMonth() == month) {
+				monthView.setDecorations(decorations);
+			}
+		}
 	}
 
 	private boolean isSelectedDayInMonth(int year, int month) {
-		return (mSelectedDay.year == year) && (mSelectedDay.month == month);
+		// in multi selection mode every picked day comes from the mask instead, in range mode from the range
+		return !mController.isMultiSelection() && !mController.isRangeMode()
+				&& (mSelectedDay.getYear() == year) && (mSelectedDay.getMonth() == month);
 	}
 
 	@Override
 	public void onDayClick(SimpleMonthView simpleMonthView, CalendarDay calendarDay) {
 		if (calendarDay != null) {
-			onDayTapped(calendarDay);
+			onDayTapped(calendarDay.getYear(), calendarDay.getMonth(), calendarDay.getDay());
 		}
 	}
 
-	private void onDayTapped(CalendarDay calendarDay) {
+	@Override
+	public void onDayTap(SimpleMonthView simpleMonthView, int year, int month, int day) {
+		onDayTapped(year, month, day);
+	}
+
+	private void onDayTapped(int year, int month, int day) {
 		mController.tryVibrate();
-		mController.onDayOfMonthSelected(calendarDay.year, calendarDay.month, calendarDay.day);
-		setSelectedDay(calendarDay);
+		mController.onDayOfMonthSelected(year, month, day);
 	}
 }
\ No newline at end of file
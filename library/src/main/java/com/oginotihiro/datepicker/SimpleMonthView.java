@@ -16,24 +16,17 @@
 package com.oginotihiro.datepicker;
 
 import java.security.InvalidParameterException;
-import java.text.DateFormatSymbols;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.Locale;
 
 import android.content.Context;
-import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.graphics.Paint.Style;
-import android.graphics.Typeface;
-import android.graphics.Paint.Align;
-import android.text.format.DateUtils;
-import android.text.format.Time;
+import android.graphics.RectF;
 import android.view.MotionEvent;
 import android.view.View;
 
-@SuppressWarnings("deprecation")
 public class SimpleMonthView extends View {
 	public static final String VIEW_PARAMS_HEIGHT = "height";
 	public static final String VIEW_PARAMS_YEAR = "year";
@@ -43,111 +36,77 @@ public class SimpleMonthView extends View {
     
 	private static int MIN_HEIGHT = 10;
 	private static int DEFAULT_HEIGHT = 32;
-	private static final int SELECTED_CIRCLE_ALPHA = 60;
-    private static final int DEFAULT_NUM_ROWS = 6;
+    private static final int DEFAULT_NUM_ROWS = MonthViewStyle.DEFAULT_NUM_ROWS;
 	private static int DAY_SEPARATOR_WIDTH = 1;
 	
-	private static int MONTH_HEADER_SIZE;
-	private static int MONTH_LABEL_TEXT_SIZE;
-	private static int MONTH_DAY_LABEL_TEXT_SIZE;
-	private static int MINI_DAY_NUMBER_TEXT_SIZE;
-	private static int DAY_SELECTED_CIRCLE_SIZE;
-    
-	private final Calendar mCalendar;
-	private final Calendar mDayLabelCalendar;
-	private DateFormatSymbols mDateFormatSymbols = new DateFormatSymbols();
+	private final MonthViewStyle mStyle;
+	private final TodayClock mTodayClock;
+	private final TodayClock.OnDayChangedListener mOnDayChangedListener = new TodayClock.OnDayChangedListener() {
+		@Override
+		public void onDayChanged(TodayClock clock) {
+			updateToday();
+			invalidate();
+		}
+	};
 	
-    private String mDayOfWeekTypeface;
-    private String mMonthTitleTypeface;
-    
-    private int mDayTextColor;
-    private int mTodayNumberColor;
-    
     private int mRowHeight = DEFAULT_HEIGHT;
     private int mWidth;
     private int mPadding = 0;
     
-    private Paint mMonthTitlePaint;
-    private Paint mMonthDayLabelPaint;
-    private Paint mMonthNumPaint;
-    private Paint mSelectedCirclePaint;
-    
     private int mYear;
     private int mMonth;
+    private String mMonthTitle;
 	private int mSelectedDay = -1;
+	private int mSelectedDays;
     
 	private int mWeekStart = 1;
-	private int mDayOfWeekStart = 0;
+	private int mDayOffset = 0;
 	
     private int mNumDays = 7;
     private int mNumCells = mNumDays;
     private int mNumRows = DEFAULT_NUM_ROWS;
+    private boolean mUniformHeight;
 	
+	private int mDisabledDays;
+	private int mHighlightedDays;
+	private MonthDecorations mDecorations;
+
+	private int mFirstEpochDay;
+	private int mRangeStartEpochDay = CalendarMath.NO_EPOCH_DAY;
+	private int mRangeEndEpochDay = CalendarMath.NO_EPOCH_DAY;
+	// part of the range inside this month, -1 when the range misses it
+	private int mRangeFrom = -1;
+	private int mRangeTo = -1;
+	private boolean mRangeStartsHere;
+	private boolean mRangeEndsHere;
+	private final RectF[] mRangeRects = new RectF[DEFAULT_NUM_ROWS];
+	private int mRangeRectCount;
+	private boolean mRangeRectsDirty;
+
 	private boolean mHasToday;
     private int mToday = -1;
     
+    private MonthRenderCache mRenderCache;
+    private Bitmap mStaticLayer;
+    private long mStaticLayerKey;
+
+    private final int[] mColumnBounds = new int[mNumDays + 1];
+    private int mPressedDay = -1;
+
     private OnDayClickListener mOnDayClickListener; 
+    private OnDayTapListener mOnDayTapListener;
     
 	public SimpleMonthView(Context context, int color) {
  		super(context);
  		
-		mCalendar = Calendar.getInstance();
-		mDayLabelCalendar = Calendar.getInstance();
-		
-		Resources resources = context.getResources();
-		
-		MONTH_HEADER_SIZE = resources.getDimensionPixelOffset(R.dimen.month_list_item_header_height);
-		MONTH_LABEL_TEXT_SIZE = resources.getDimensionPixelSize(R.dimen.month_label_size);
-		MONTH_DAY_LABEL_TEXT_SIZE = resources.getDimensionPixelSize(R.dimen.month_day_label_text_size);
-		MINI_DAY_NUMBER_TEXT_SIZE = resources.getDimensionPixelSize(R.dimen.day_number_size);
-		DAY_SELECTED_CIRCLE_SIZE = resources.getDimensionPixelSize(R.dimen.day_number_select_circle_radius);
-		
-		mMonthTitleTypeface = resources.getString(R.string.sans_serif); // sans-serif 标题
-		mDayOfWeekTypeface = resources.getString(R.string.day_of_week_label_typeface); // sans-serif 日-六
-
-		mDayTextColor = resources.getColor(R.color.date_picker_text_normal);
-		mTodayNumberColor = color;
-		
-		// 270dp - 50dp
-		mRowHeight = ((resources.getDimensionPixelOffset(R.dimen.date_picker_view_animator_height) - MONTH_HEADER_SIZE) / DEFAULT_NUM_ROWS);
-	
-		init();
+		mStyle = MonthViewStyle.get(context, color);
+		mTodayClock = TodayClock.getInstance(context);
+		mRowHeight = mStyle.rowHeight;
  	}
 	
-	private void init() {
-		mMonthTitlePaint = new Paint();
-		mMonthTitlePaint.setAntiAlias(true);
-		mMonthTitlePaint.setFakeBoldText(true);
-		mMonthTitlePaint.setTextSize(MONTH_LABEL_TEXT_SIZE);
-		mMonthTitlePaint.setTypeface(Typeface.create(mMonthTitleTypeface, Typeface.BOLD));
-		mMonthTitlePaint.setColor(mDayTextColor);
-		mMonthTitlePaint.setStyle(Style.FILL);
-		mMonthTitlePaint.setTextAlign(Align.CENTER);
-	
-		mMonthDayLabelPaint = new Paint();
-		mMonthDayLabelPaint.setAntiAlias(true);
-		mMonthDayLabelPaint.setFakeBoldText(true);
-		mMonthDayLabelPaint.setTextSize(MONTH_DAY_LABEL_TEXT_SIZE);
-		mMonthDayLabelPaint.setTypeface(Typeface.create(mDayOfWeekTypeface, Typeface.NORMAL));
-		mMonthDayLabelPaint.setColor(mDayTextColor);
-		mMonthDayLabelPaint.setStyle(Style.FILL);
-		mMonthDayLabelPaint.setTextAlign(Align.CENTER);
-
-		mMonthNumPaint = new Paint();
-		mMonthNumPaint.setAntiAlias(true);
-		mMonthNumPaint.setFakeBoldText(false);
-		mMonthNumPaint.setTextSize(MINI_DAY_NUMBER_TEXT_SIZE);
-		mMonthNumPaint.setStyle(Style.FILL);
-		mMonthNumPaint.setTextAlign(Align.CENTER);
-
-		mSelectedCirclePaint = new Paint();
-		mSelectedCirclePaint.setAntiAlias(true);
-		mSelectedCirclePaint.setFakeBoldText(true);
-		mSelectedCirclePaint.setColor(mTodayNumberColor);
-		mSelectedCirclePaint.setStyle(Style.FILL);
-		mSelectedCirclePaint.setAlpha(SELECTED_CIRCLE_ALPHA);
-	}
-	
+	/**
+	 * Compatibility path for the old map based protocol, prefer {@link #bind(int, int, int, int)}.
+	 */
 	public void setMonthParams(HashMap<String, Integer> params) {
 		if (!params.containsKey(VIEW_PARAMS_MONTH) && !params.containsKey(VIEW_PARAMS_YEAR)) {
 			throw new InvalidParameterException("You must specify month and year for this view");
@@ -160,76 +119,295 @@ public class SimpleMonthView extends View {
 				mRowHeight = MIN_HEIGHT;
 			}
 		}
-		
-		mYear = params.get(VIEW_PARAMS_YEAR);
-		mMonth = params.get(VIEW_PARAMS_MONTH);
-		
+
+		int selectedDay = mSelectedDay;
 		if (params.containsKey(VIEW_PARAMS_SELECTED_DAY)) { // 选中的日期
-			mSelectedDay = params.get(VIEW_PARAMS_SELECTED_DAY);
+			selectedDay = params.get(VIEW_PARAMS_SELECTED_DAY);
 		}
 
-		final Time today = new Time(Time.getCurrentTimezone());
-		today.setToNow();
-		
-		mHasToday = false;
-		mToday = -1;
-
-		mCalendar.set(Calendar.YEAR, mYear);
-		mCalendar.set(Calendar.MONTH, mMonth);
-		mCalendar.set(Calendar.DAY_OF_MONTH, 1);
-		
-		// 获取1号是星期几  从1-7对应 日-六
-		mDayOfWeekStart = mCalendar.get(Calendar.DAY_OF_WEEK);
-
 		// 获取每周的第一天是星期几 从1-7对应 日-六  现在返回的是1
+		int weekStart;
 		if (params.containsKey(VIEW_PARAMS_WEEK_START)) {
-			mWeekStart = params.get(VIEW_PARAMS_WEEK_START);
+			weekStart = params.get(VIEW_PARAMS_WEEK_START);
 		} else {
-			mWeekStart = mCalendar.getFirstDayOfWeek();
+			weekStart = Calendar.getInstance().getFirstDayOfWeek();
+		}
+
+		bind(params.get(VIEW_PARAMS_YEAR), params.get(VIEW_PARAMS_MONTH), selectedDay, weekStart);
+	}
+
+	/**
+	 * @param selectedDay day of month to circle, or -1 for none
+	 * @param weekStart first day of the week, Calendar.SUNDAY - Calendar.SATURDAY
+	 */
+	public void bind(int year, int month, int selectedDay, int weekStart) {
+		mYear = year;
+		mMonth = month;
+		mSelectedDay = selectedDay;
+		mWeekStart = weekStart;
+
+		mDayOffset = MonthLayout.getDayOffset(mYear, mMonth, mWeekStart);
+		mNumCells = MonthLayout.getDaysInMonth(mYear, mMonth); // 这个月多少天
+		mNumRows = MonthLayout.getNumRows(mYear, mMonth, mWeekStart);
+		mMonthTitle = DateTextCache.getMonthTitle(getContext(), mYear, mMonth);
+		mFirstEpochDay = CalendarMath.toEpochDay(mYear, mMonth, 1);
+		mRangeRectsDirty = true;
+
+		updateToday();
+	}
+
+	/**
+	 * The row shapes of the range are only rebuilt when the part of the range inside this month changes.
+	 *
+	 * @param startEpochDay first day of the range, CalendarMath.NO_EPOCH_DAY for no range
+	 * @param endEpochDay last day of the range, inclusive
+	 */
+	public void setRange(int startEpochDay, int endEpochDay) {
+		int from = -1;
+		int to = -1;
+		int lastEpochDay = mFirstEpochDay + mNumCells - 1;
+		if (startEpochDay != CalendarMath.NO_EPOCH_DAY && startEpochDay <= endEpochDay
+				&& startEpochDay <= lastEpochDay && endEpochDay >= mFirstEpochDay) {
+			from = Math.max(startEpochDay, mFirstEpochDay) - mFirstEpochDay + 1;
+			to = Math.min(endEpochDay, lastEpochDay) - mFirstEpochDay + 1;
 		}
+		boolean startsHere = from != -1 && startEpochDay >= mFirstEpochDay;
+		boolean endsHere = from != -1 && endEpochDay <= lastEpochDay;
+
+		mRangeStartEpochDay = startEpochDay;
+		mRangeEndEpochDay = endEpochDay;
+		if (from != mRangeFrom || to != mRangeTo || startsHere != mRangeStartsHere || endsHere != mRangeEndsHere) {
+			mRangeFrom = from;
+			mRangeTo = to;
+			mRangeStartsHere = startsHere;
+			mRangeEndsHere = endsHere;
+			mRangeRectsDirty = true;
+			invalidate();
+		}
+	}
+
+	public boolean isDayInRange(int day) {
+		int epochDay = mFirstEpochDay + day - 1;
+		return epochDay >= mRangeStartEpochDay && epochDay <= mRangeEndEpochDay;
+	}
+
+	private boolean isRangeStart(int day) {
+		return mRangeStartsHere && day == mRangeFrom;
+	}
+
+	private boolean isRangeEnd(int day) {
+		return mRangeEndsHere && day == mRangeTo;
+	}
 
-		mNumCells = Utils.getDaysInMonth(mYear, mMonth); // 这个月多少天
-		for (int i = 0; i < mNumCells; i++) {
-			final int day = i + 1;
-			if (sameDay(day, today)) {
-				mHasToday = true;
-				mToday = day;
+	/**
+	 * @param disabledMask bit (day - 1) set for every day that can't be picked
+	 */
+	public void setDisabledDays(int disabledMask) {
+		int changed = mDisabledDays ^ disabledMask;
+		if (changed == 0) {
+			return;
+		}
+		mDisabledDays = disabledMask;
+		if (Integer.bitCount(changed) > 2) {
+			invalidate();
+			return;
+		}
+		for (int day = 1; day <= mNumCells; day++) {
+			if ((changed & MonthMaskSet.bit(day)) != 0) {
+				invalidateDay(day);
 			}
 		}
+	}
 
-		mNumRows = calculateNumRows();
+	/**
+	 * @param highlightedMask bit (day - 1) set for every day that gets a dot under its number
+	 */
+	public void setHighlightedDays(int highlightedMask) {
+		if (mHighlightedDays != highlightedMask) {
+			mHighlightedDays = highlightedMask;
+			invalidate();
+		}
 	}
-	
-	private boolean sameDay(int monthDay, Time time) {
-		return (mYear == time.year) && (mMonth == time.month) && (monthDay == time.monthDay);
+
+	/**
+	 * @param decorations labels and dots loaded for this month, null for none
+	 */
+	public void setDecorations(MonthDecorations decorations) {
+		if (mDecorations != decorations) {
+			mDecorations = decorations;
+			invalidate();
+		}
 	}
-	
-	private int calculateNumRows() {
-		int offset = findDayOffset();
-		int dividend = (offset + mNumCells) / mNumDays;
-		int remainder = (offset + mNumCells) % mNumDays;
-		return (dividend + (remainder > 0 ? 1 : 0));
+
+	public boolean isDayDisabled(int day) {
+		return (mDisabledDays & MonthMaskSet.bit(day)) != 0;
+	}
+
+	public int getYear() {
+		return mYear;
+	}
+
+	public int getMonth() {
+		return mMonth;
+	}
+
+	/**
+	 * Moves the selection circle without rebinding, only the old and the new cell are redrawn.
+	 *
+	 * @param selectedDay day of month to circle, or -1 for none
+	 */
+	public void setSelectedDay(int selectedDay) {
+		if (mSelectedDay == selectedDay) {
+			return;
+		}
+		invalidateDay(mSelectedDay);
+		mSelectedDay = selectedDay;
+		invalidateDay(mSelectedDay);
 	}
 
-	private int findDayOffset() {
-		return (mDayOfWeekStart < mWeekStart ? (mDayOfWeekStart + mNumDays) : mDayOfWeekStart) - mWeekStart;
+	/**
+	 * Circles every day in mask on top of the single selected day, only cells whose state changed are redrawn.
+	 *
+	 * @param selectedMask bit (day - 1) set for every selected day
+	 */
+	public void setSelectedDays(int selectedMask) {
+		int changed = mSelectedDays ^ selectedMask;
+		if (changed == 0) {
+			return;
+		}
+		mSelectedDays = selectedMask;
+		if (Integer.bitCount(changed) > 2) {
+			invalidate();
+			return;
+		}
+		while (changed != 0) {
+			invalidateDay(Integer.numberOfTrailingZeros(changed) + 1);
+			changed &= changed - 1;
+		}
+	}
+
+	private boolean isDaySelected(int day) {
+		return mSelectedDay == day || (mSelectedDays & MonthMaskSet.bit(day)) != 0;
+	}
+
+	private void invalidateDay(int day) {
+		if (day < 1 || day > mNumCells || mWidth <= 0) {
+			return;
+		}
+		int x = getDayX(day);
+		int circleY = getDayY(day) - mStyle.dayNumberTextSize / 3;
+		int radius = mStyle.daySelectedCircleSize + 1;
+		int column = (mDayOffset + day - 1) % mNumDays;
+		int rowTop = mStyle.monthHeaderSize + (mDayOffset + day - 1) / mNumDays * mRowHeight;
+
+		invalidate(Math.min(x - radius, mColumnBounds[column]), Math.min(circleY - radius, rowTop),
+				Math.max(x + radius, mColumnBounds[column + 1]), Math.max(circleY + radius, rowTop + mRowHeight));
+	}
+
+	private void updateToday() {
+		mToday = mTodayClock.getTodayInMonth(mYear, mMonth);
+		mHasToday = mToday != -1;
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		mTodayClock.registerOnDayChangedListener(mOnDayChangedListener);
+		updateToday();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		mTodayClock.unregisterOnDayChangedListener(mOnDayChangedListener);
+		super.onDetachedFromWindow();
 	}
 	
 	@Override
 	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-		setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), mRowHeight * mNumRows + MONTH_HEADER_SIZE);
+		int rows = mUniformHeight ? DEFAULT_NUM_ROWS : mNumRows;
+		setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), mRowHeight * rows + mStyle.monthHeaderSize);
+	}
+
+	/**
+	 * Measures every month as six rows high, shorter months leave their last rows empty.
+	 */
+	public void setUniformHeight(boolean uniformHeight) {
+		if (mUniformHeight != uniformHeight) {
+			mUniformHeight = uniformHeight;
+			requestLayout();
+		}
 	}
 	
 	@Override
 	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
 		mWidth = w;
+
+		int cellsWidth = mWidth - 2 * mPadding;
+		for (int i = 0; i <= mNumDays; i++) {
+			mColumnBounds[i] = mPadding + i * cellsWidth / mNumDays;
+		}
+		mRangeRectsDirty = true;
 	}
 	
+	/**
+	 * Draws the static part of the month from a shared bitmap cache, or directly when cache is null.
+	 */
+	public void setRenderCache(MonthRenderCache cache) {
+		if (mRenderCache != cache) {
+			mRenderCache = cache;
+			mStaticLayer = null;
+		}
+	}
+
 	@Override
 	protected void onDraw(Canvas canvas) {
+		drawPressedCell(canvas);
+
+		drawRange(canvas);
+
+		Bitmap staticLayer = getStaticLayer();
+		if (staticLayer != null) {
+			drawSelectedCircle(canvas);
+			canvas.drawBitmap(staticLayer, 0, 0, null);
+			drawToday(canvas);
+			drawDecorations(canvas);
+			return;
+		}
+
 		drawMonthTitle(canvas);
 		drawMonthDayLabels(canvas);
-		drawMonthNums(canvas);
+		drawMonthNums(canvas, true);
+		drawDecorations(canvas);
+	}
+
+	private Bitmap getStaticLayer() {
+		// months with disabled days are drawn directly, the layer key has no room for the mask
+		if (mRenderCache == null || mDisabledDays != 0 || mWidth <= 0 || getHeight() <= 0) {
+			return null;
+		}
+
+		if (mRenderCache.checkConfiguration(getResources().getConfiguration())) {
+			mStaticLayer = null;
+		}
+
+		int today = mHasToday ? mToday : -1;
+		long key = mRenderCache.makeKey(mYear, mMonth, mWeekStart, today, mWidth, mRowHeight, mStyle.dayTextColor);
+		if (mStaticLayer != null && mStaticLayerKey == key) {
+			return mStaticLayer;
+		}
+
+		Bitmap layer = mRenderCache.get(key);
+		if (layer == null || layer.getHeight() != getHeight()) {
+			layer = Bitmap.createBitmap(mWidth, getHeight(), Bitmap.Config.ARGB_8888);
+			Canvas canvas = new Canvas(layer);
+			drawMonthTitle(canvas);
+			drawMonthDayLabels(canvas);
+			drawMonthNums(canvas, false);
+			mRenderCache.put(key, layer);
+		}
+		mStaticLayer = layer;
+		mStaticLayerKey = key;
+		return layer;
 	}
 	
 	/** 
@@ -237,14 +415,8 @@ public class SimpleMonthView extends View {
 	 */
 	private void drawMonthTitle(Canvas canvas) {
 		int x = (mWidth + 2 * mPadding) / 2;
-        int y = (MONTH_HEADER_SIZE - MONTH_DAY_LABEL_TEXT_SIZE) / 2 + (MONTH_LABEL_TEXT_SIZE / 3);
-        canvas.drawText(getMonthAndYearString(), x, y, mMonthTitlePaint);
-	}
-	
-	private String getMonthAndYearString() {
-		int flags = DateUtils.FORMAT_SHOW_DATE | DateUtils.FORMAT_SHOW_YEAR | DateUtils.FORMAT_NO_MONTH_DAY;
-		long millis = mCalendar.getTimeInMillis();
-		return DateUtils.formatDateRange(getContext(), millis, millis, flags);
+        int y = (mStyle.monthHeaderSize - mStyle.monthDayLabelTextSize) / 2 + (mStyle.monthLabelTextSize / 3);
+        canvas.drawText(mMonthTitle, x, y, mStyle.monthTitlePaint);
 	}
 	
 	/**
@@ -252,40 +424,38 @@ public class SimpleMonthView extends View {
 	 * 星期一 星期二 ... 星期日
 	 */
 	private void drawMonthDayLabels(Canvas canvas) {
-		int y = MONTH_HEADER_SIZE - (MONTH_DAY_LABEL_TEXT_SIZE / 2);
+		int y = mStyle.monthHeaderSize - (mStyle.monthDayLabelTextSize / 2);
 		int dayWidthHalf = (mWidth - mPadding * 2) / (mNumDays * 2);
 
 		for (int i = 0; i < mNumDays; i++) {
 			int x = (2 * i + 1) * dayWidthHalf + mPadding;
-			int calendarDay = (i + mWeekStart) % mNumDays;
-			mDayLabelCalendar.set(Calendar.DAY_OF_WEEK, calendarDay);
-			canvas.drawText(mDateFormatSymbols.getShortWeekdays()[mDayLabelCalendar
-							.get(Calendar.DAY_OF_WEEK)].toUpperCase(Locale
-							.getDefault()), x, y, mMonthDayLabelPaint);
+			int dayOfWeek = (i + mWeekStart - 1) % mNumDays + 1;
+			canvas.drawText(DateTextCache.getShortWeekdayLabel(dayOfWeek), x, y, mStyle.monthDayLabelPaint);
 		}
 	}
 	
-	private void drawMonthNums(Canvas canvas) {
-		int y = (mRowHeight + MINI_DAY_NUMBER_TEXT_SIZE) / 2 - DAY_SEPARATOR_WIDTH + MONTH_HEADER_SIZE;
+	/**
+	 * @param withOverlay false to leave out the selection circle and today's number, which are drawn over a cached layer
+	 */
+	private void drawMonthNums(Canvas canvas, boolean withOverlay) {
+		int y = (mRowHeight + mStyle.dayNumberTextSize) / 2 - DAY_SEPARATOR_WIDTH + mStyle.monthHeaderSize;
 		int paddingDay = (mWidth - 2 * mPadding) / (2 * mNumDays);
-		int dayOffset = findDayOffset();
+		int dayOffset = mDayOffset;
 		int day = 1;
 
 		while (day <= mNumCells) {
 			int x = paddingDay * (1 + dayOffset * 2) + mPadding;
 
-			if (mSelectedDay == day) {
-				canvas.drawCircle(x, y - MINI_DAY_NUMBER_TEXT_SIZE / 3, DAY_SELECTED_CIRCLE_SIZE, mSelectedCirclePaint);
+			if (withOverlay && isDaySelected(day)) {
+				canvas.drawCircle(x, y - mStyle.dayNumberTextSize / 3, mStyle.daySelectedCircleSize, mStyle.selectedCirclePaint);
 			}
 
-			if (mHasToday && (mToday == day)) {
-				mMonthNumPaint.setColor(mTodayNumberColor);
-			} else {
-				mMonthNumPaint.setColor(mDayTextColor);
+			boolean isToday = mHasToday && (mToday == day);
+			if (withOverlay || !isToday) {
+				char[] dayNumber = DateTextCache.getDayNumber(day);
+				canvas.drawText(dayNumber, 0, dayNumber.length, x, y, getDayNumPaint(day, isToday));
 			}
 
-			canvas.drawText(String.format("%d", day), x, y, mMonthNumPaint);
-
 			dayOffset++;
 			if (dayOffset == mNumDays) {
 				dayOffset = 0;
@@ -295,37 +465,211 @@ public class SimpleMonthView extends View {
 		}
 	}
 	
+	private Paint getDayNumPaint(int day, boolean isToday) {
+		if (isDayDisabled(day)) {
+			return mStyle.disabledNumPaint;
+		}
+		return isToday ? mStyle.todayNumPaint : mStyle.monthNumPaint;
+	}
+
+	/**
+	 * Highlight dots and loaded decorations under the day numbers, a label wins over a dot.
+	 */
+	private void drawDecorations(Canvas canvas) {
+		int dotMask = mHighlightedDays;
+		if (mDecorations != null) {
+			dotMask |= mDecorations.getDotMask();
+		}
+		if (dotMask == 0 && mDecorations == null) {
+			return;
+		}
+
+		for (int day = 1; day <= mNumCells; day++) {
+			String label = mDecorations != null ? mDecorations.getLabel(day) : null;
+			if (label != null) {
+				canvas.drawText(label, getDayX(day), getDayY(day) + mStyle.decorationLabelTextSize,
+						mStyle.decorationLabelPaint);
+			} else if ((dotMask & MonthMaskSet.bit(day)) != 0) {
+				canvas.drawCircle(getDayX(day), getDayY(day) + mStyle.dayNumberTextSize / 3,
+						mStyle.highlightDotRadius, mStyle.highlightDotPaint);
+			}
+		}
+	}
+
+	private void drawRange(Canvas canvas) {
+		if (mRangeFrom == -1) {
+			return;
+		}
+		if (mRangeRectsDirty) {
+			buildRangeRects();
+		}
+		for (int i = 0; i < mRangeRectCount; i++) {
+			canvas.drawRect(mRangeRects[i], mStyle.rangePaint);
+		}
+		if (isRangeStart(mRangeFrom)) {
+			drawRangeEndpoint(canvas, mRangeFrom);
+		}
+		if (isRangeEnd(mRangeTo) && mRangeTo != mRangeFrom) {
+			drawRangeEndpoint(canvas, mRangeTo);
+		}
+	}
+
+	private void drawRangeEndpoint(Canvas canvas, int day) {
+		canvas.drawCircle(getDayX(day), getDayY(day) - mStyle.dayNumberTextSize / 3,
+				mStyle.daySelectedCircleSize, mStyle.rangePaint);
+	}
+
+	/**
+	 * One band per row the range covers, ending at the cell centers of the range's own endpoints.
+	 */
+	private void buildRangeRects() {
+		mRangeRectsDirty = false;
+		mRangeRectCount = 0;
+		if (mRangeFrom == -1) {
+			return;
+		}
+
+		int radius = mStyle.daySelectedCircleSize;
+		int day = mRangeFrom;
+		while (day <= mRangeTo) {
+			int column = (mDayOffset + day - 1) % mNumDays;
+			int rowEnd = Math.min(mRangeTo, day + mNumDays - 1 - column);
+			int endColumn = column + rowEnd - day;
+			int centerY = getDayY(day) - mStyle.dayNumberTextSize / 3;
+
+			int left = isRangeStart(day) ? getDayX(day) : mColumnBounds[column];
+			int right = isRangeEnd(rowEnd) ? getDayX(rowEnd) : mColumnBounds[endColumn + 1];
+
+			RectF rect = mRangeRects[mRangeRectCount];
+			if (rect == null) {
+				rect = new RectF();
+				mRangeRects[mRangeRectCount] = rect;
+			}
+			rect.set(left, centerY - radius, right, centerY + radius);
+			mRangeRectCount++;
+			day = rowEnd + 1;
+		}
+	}
+
+	private void drawPressedCell(Canvas canvas) {
+		if (mPressedDay >= 1 && mPressedDay <= mNumCells) {
+			canvas.drawCircle(getDayX(mPressedDay), getDayY(mPressedDay) - mStyle.dayNumberTextSize / 3,
+					mStyle.daySelectedCircleSize, mStyle.pressedCirclePaint);
+		}
+	}
+
+	private void drawSelectedCircle(Canvas canvas) {
+		if (mSelectedDay >= 1 && mSelectedDay <= mNumCells) {
+			canvas.drawCircle(getDayX(mSelectedDay), getDayY(mSelectedDay) - mStyle.dayNumberTextSize / 3,
+					mStyle.daySelectedCircleSize, mStyle.selectedCirclePaint);
+		}
+
+		int mask = mSelectedDays;
+		if (mSelectedDay >= 1) {
+			mask &= ~MonthMaskSet.bit(mSelectedDay);
+		}
+		while (mask != 0) {
+			int day = Integer.numberOfTrailingZeros(mask) + 1;
+			canvas.drawCircle(getDayX(day), getDayY(day) - mStyle.dayNumberTextSize / 3,
+					mStyle.daySelectedCircleSize, mStyle.selectedCirclePaint);
+			mask &= mask - 1;
+		}
+	}
+
+	private void drawToday(Canvas canvas) {
+		if (mHasToday) {
+			char[] dayNumber = DateTextCache.getDayNumber(mToday);
+			canvas.drawText(dayNumber, 0, dayNumber.length, getDayX(mToday), getDayY(mToday), mStyle.todayNumPaint);
+		}
+	}
+
+	private int getDayX(int day) {
+		int paddingDay = (mWidth - 2 * mPadding) / (2 * mNumDays);
+		int column = (mDayOffset + day - 1) % mNumDays;
+		return paddingDay * (1 + column * 2) + mPadding;
+	}
+
+	private int getDayY(int day) {
+		int row = (mDayOffset + day - 1) / mNumDays;
+		return (mRowHeight + mStyle.dayNumberTextSize) / 2 - DAY_SEPARATOR_WIDTH + mStyle.monthHeaderSize + row * mRowHeight;
+	}
+
 	@Override
 	public boolean onTouchEvent(MotionEvent event) {
-		if (event.getAction() == MotionEvent.ACTION_UP) {
-			CalendarDay calendarDay = getDayFromLocation(event.getX(), event.getY());
-			if (calendarDay != null) {
-				onDayClick(calendarDay);
+		switch (event.getAction()) {
+		case MotionEvent.ACTION_DOWN:
+			setPressedDay(getDayIndexFromLocation(event.getX(), event.getY()));
+			break;
+		case MotionEvent.ACTION_MOVE:
+			if (getDayIndexFromLocation(event.getX(), event.getY()) != mPressedDay) {
+				setPressedDay(-1);
+			}
+			break;
+		case MotionEvent.ACTION_UP:
+			int day = getDayIndexFromLocation(event.getX(), event.getY());
+			setPressedDay(-1);
+			if (day != -1) {
+				onDayClick(day);
 			}
+			break;
+		case MotionEvent.ACTION_CANCEL:
+			setPressedDay(-1);
+			break;
 		}
 		return true;
 	}
 
-	public CalendarDay getDayFromLocation(float x, float y) {
-		int padding = mPadding;
-		if ((x < padding) || (x > mWidth - mPadding)) {
-			return null;
+	private void setPressedDay(int day) {
+		if (mPressedDay == day) {
+			return;
+		}
+		invalidateDay(mPressedDay);
+		mPressedDay = day;
+		invalidateDay(mPressedDay);
+	}
+
+	/**
+	 * Allocation free variant of {@link #getDayFromLocation(float, float)}.
+	 *
+	 * @return the day of month under the point, or -1
+	 */
+	public int getDayIndexFromLocation(float x, float y) {
+		if (x < mColumnBounds[0] || x > mColumnBounds[mNumDays] || y < mStyle.monthHeaderSize) {
+			return -1;
+		}
+
+		int column = mNumDays - 1;
+		while (column > 0 && x < mColumnBounds[column]) {
+			column--;
 		}
+		int row = (int) (y - mStyle.monthHeaderSize) / mRowHeight;
+		int day = 1 + column - mDayOffset + row * mNumDays;
 
-		int yDay = (int) (y - MONTH_HEADER_SIZE) / mRowHeight;
-		int day = 1 + ((int) ((x - padding) * mNumDays / (mWidth - padding - mPadding)) - findDayOffset()) + yDay * mNumDays;
+		if (day < 1 || day > mNumCells || isDayDisabled(day)) return -1;
 
-		if (day < 1 || day > mNumCells) return null;
+		return day;
+	}
+
+	public CalendarDay getDayFromLocation(float x, float y) {
+		int day = getDayIndexFromLocation(x, y);
+		if (day == -1) return null;
 		
-		return new CalendarDay(mYear, mMonth, day);
+		return CalendarDay.of(mYear, mMonth, day);
 	}
 	
-	private void onDayClick(CalendarDay calendarDay) {
+	private void onDayClick(int day) {
+		if (mOnDayTapListener != null) {
+			mOnDayTapListener.onDayTap(this, mYear, mMonth, day);
+		}
 		if (mOnDayClickListener != null) {
-			mOnDayClickListener.onDayClick(this, calendarDay);
+			mOnDayClickListener.onDayClick(this, CalendarDay.of(mYear, mMonth, day));
 		}
 	}
-	
+
+	public void setOnDayTapListener(OnDayTapListener onDayTapListener) {
+		mOnDayTapListener = onDayTapListener;
+	}
+
 	public void setOnDayClickListener(OnDayClickListener onDayClickListener) {
 		mOnDayClickListener = onDayClickListener;
 	}
@@ -333,4 +677,11 @@ public class SimpleMonthView extends View {
 	public interface OnDayClickListener {
 		void onDayClick(SimpleMonthView simpleMonthView, CalendarDay calendarDay);
 	}
+
+	/**
+	 * Primitive counterpart of {@link OnDayClickListener}, nothing is allocated per tap.
+	 */
+	public interface OnDayTapListener {
+		void onDayTap(SimpleMonthView simpleMonthView, int year, int month, int day);
+	}
 }
\ No newline at end of file
@@ -16,7 +16,6 @@
 package com.oginotihiro.datepicker;
 
 import android.content.Context;
-import android.content.res.ColorStateList;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.util.AttributeSet;
@@ -25,6 +24,7 @@ import android.widget.TextView;
 public class TextViewWithCircularIndicator extends TextView {
     private Paint mCirclePaint = new Paint();
     private boolean mDrawCircle;
+    private YearLabelPalette mPalette;
 
     public TextViewWithCircularIndicator(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -34,19 +34,16 @@ public class TextViewWithCircularIndicator extends TextView {
     }
 
     public void setColor(int color, int darkColor) {
-        mCirclePaint.setColor(color);
-        mCirclePaint.setAlpha(60);
-
-        int[][] states = new int[][]{
-                new int[]{android.R.attr.state_pressed},
-                new int[]{-android.R.attr.state_pressed, -android.R.attr.state_selected}
-        };
-        int[] colors = new int[]{
-                darkColor, getResources().getColor(R.color.date_picker_text_normal)
+        setPalette(YearLabelPalette.get(getContext(), color, darkColor));
+    }
 
-        };
-        ColorStateList colorStateList = new ColorStateList(states, colors);
-        setTextColor(colorStateList);
+    void setPalette(YearLabelPalette palette) {
+        if (mPalette == palette) {
+            return;
+        }
+        mPalette = palette;
+        mCirclePaint.setColor(palette.circleColor);
+        setTextColor(palette.yearTextColors);
     }
 
     public void drawIndicator(boolean drawIndicator) {
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.ArrayList;
+import java.util.TimeZone;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Process wide "today", computed once as an epoch day instead of on every
+ * bind. It is recomputed at local midnight and when the time or the time
+ * zone changes, and listeners are told when the day actually moved.
+ *
+ * Meant to be used on the main thread.
+ */
+final class TodayClock {
+	static final long DAY_IN_MILLIS = 24L * 60 * 60 * 1000;
+
+	interface TimeSource {
+		long currentTimeMillis();
+
+		TimeZone getTimeZone();
+	}
+
+	interface OnDayChangedListener {
+		void onDayChanged(TodayClock clock);
+	}
+
+	static final TimeSource SYSTEM_TIME_SOURCE = new TimeSource() {
+		@Override
+		public long currentTimeMillis() {
+			return System.currentTimeMillis();
+		}
+
+		@Override
+		public TimeZone getTimeZone() {
+			return TimeZone.getDefault();
+		}
+	};
+
+	private static TodayClock sInstance;
+
+	private final ArrayList<OnDayChangedListener> mListeners = new ArrayList<OnDayChangedListener>();
+	private final Handler mHandler;
+	private final Runnable mMidnightRunnable = new Runnable() {
+		@Override
+		public void run() {
+			refresh();
+		}
+	};
+
+	private TimeSource mTimeSource;
+
+	private int mEpochDay;
+	private int mYear;
+	private int mMonth;
+	private int mDayOfMonth;
+
+	TodayClock(TimeSource timeSource, Handler handler) {
+		mTimeSource = timeSource;
+		mHandler = handler;
+		update();
+		scheduleMidnight();
+	}
+
+	static TodayClock getInstance(Context context) {
+		if (sInstance == null) {
+			final TodayClock clock = new TodayClock(SYSTEM_TIME_SOURCE, new Handler(Looper.getMainLooper()));
+
+			IntentFilter filter = new IntentFilter();
+			filter.addAction(Intent.ACTION_TIME_CHANGED);
+			filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+			filter.addAction(Intent.ACTION_DATE_CHANGED);
+			context.getApplicationContext().registerReceiver(new BroadcastReceiver() {
+				@Override
+				public void onReceive(Context context, Intent intent) {
+					clock.refresh();
+				}
+			}, filter);
+
+			sInstance = clock;
+		}
+		return sInstance;
+	}
+
+	void setTimeSource(TimeSource timeSource) {
+		mTimeSource = timeSource;
+		refresh();
+	}
+
+	int getEpochDay() {
+		return mEpochDay;
+	}
+
+	int getYear() {
+		return mYear;
+	}
+
+	int getMonth() {
+		return mMonth;
+	}
+
+	int getDayOfMonth() {
+		return mDayOfMonth;
+	}
+
+	/**
+	 * Today's day of month if today falls in the given month, otherwise -1.
+	 */
+	int getTodayInMonth(int year, int month) {
+		return (mYear == year && mMonth == month) ? mDayOfMonth : -1;
+	}
+
+	void registerOnDayChangedListener(OnDayChangedListener listener) {
+		if (!mListeners.contains(listener)) {
+			mListeners.add(listener);
+		}
+	}
+
+	void unregisterOnDayChangedListener(OnDayChangedListener listener) {
+		mListeners.remove(listener);
+	}
+
+	/**
+	 * Recomputes today, notifies the listeners if the day changed and schedules the next midnight.
+	 */
+	void refresh() {
+		int oldEpochDay = mEpochDay;
+		update();
+		scheduleMidnight();
+
+		if (mEpochDay != oldEpochDay) {
+			OnDayChangedListener[] listeners = mListeners.toArray(new OnDayChangedListener[mListeners.size()]);
+			for (OnDayChangedListener listener : listeners) {
+				listener.onDayChanged(this);
+			}
+		}
+	}
+
+	long getMillisUntilNextDay() {
+		long millis = mTimeSource.currentTimeMillis();
+		long localMillis = millis + mTimeSource.getTimeZone().getOffset(millis);
+		return DAY_IN_MILLIS - floorMod(localMillis, DAY_IN_MILLIS);
+	}
+
+	private void update() {
+		mEpochDay = CalendarMath.toEpochDay(mTimeSource.currentTimeMillis(), mTimeSource.getTimeZone());
+		mYear = CalendarMath.getYear(mEpochDay);
+		mMonth = CalendarMath.getMonth(mEpochDay);
+		mDayOfMonth = CalendarMath.getDayOfMonth(mEpochDay);
+	}
+
+	private void scheduleMidnight() {
+		if (mHandler != null) {
+			mHandler.removeCallbacks(mMidnightRunnable);
+			// a little after midnight so the new day is already there
+			mHandler.postDelayed(mMidnightRunnable, getMillisUntilNextDay() + 1000);
+		}
+	}
+
+	private static long floorMod(long x, long y) {
+		long mod = x % y;
+		return mod < 0 ? mod + y : mod;
+	}
+}
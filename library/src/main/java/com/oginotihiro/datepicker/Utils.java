@@ -15,8 +15,6 @@
  */
 package com.oginotihiro.datepicker;
 
-import java.util.Calendar;
-
 import com.nineoldandroids.animation.Keyframe;
 import com.nineoldandroids.animation.ObjectAnimator;
 import com.nineoldandroids.animation.PropertyValuesHolder;
@@ -26,25 +24,7 @@ public class Utils {
     public static final int PULSE_ANIMATOR_DURATION = 544;
 	
 	public static int getDaysInMonth(int year, int month) {
-		switch (month) {
-		case Calendar.JANUARY:
-		case Calendar.MARCH:
-		case Calendar.MAY:
-		case Calendar.JULY:
-		case Calendar.AUGUST:
-		case Calendar.OCTOBER:
-		case Calendar.DECEMBER:
-			return 31;
-		case Calendar.APRIL:
-		case Calendar.JUNE:
-		case Calendar.SEPTEMBER:
-		case Calendar.NOVEMBER:
-			return 30;
-		case Calendar.FEBRUARY:
-			return (year % 4 == 0) ? 29 : 28;
-		default:
-			throw new IllegalArgumentException("Invalid Month");
-		}
+		return CalendarMath.getDaysInMonth(year, month);
 	}
 	
 	public static ObjectAnimator getPulseAnimator(View labelToAnimate, float decreaseRatio, float increaseRatio) {
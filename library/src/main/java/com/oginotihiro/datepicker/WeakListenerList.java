@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * Listeners held through weak references, so a view tree that is never
+ * unregistered can still be collected. Cleared entries are dropped whenever
+ * the list is touched.
+ *
+ * Listeners are called from a snapshot taken when dispatching starts, so
+ * one may add or remove listeners while being called. Not thread safe.
+ */
+final class WeakListenerList<T> {
+	private final ArrayList<WeakReference<T>> mReferences = new ArrayList<WeakReference<T>>();
+
+	/**
+	 * @return false if the listener was already added
+	 */
+	boolean add(T listener) {
+		if (listener == null) {
+			throw new NullPointerException("listener == null");
+		}
+		if (indexOf(listener) >= 0) {
+			return false;
+		}
+		mReferences.add(new WeakReference<T>(listener));
+		return true;
+	}
+
+	boolean remove(T listener) {
+		int index = indexOf(listener);
+		if (index < 0) {
+			return false;
+		}
+		mReferences.remove(index);
+		return true;
+	}
+
+	void clear() {
+		mReferences.clear();
+	}
+
+	/**
+	 * The number of listeners not yet collected.
+	 */
+	int size() {
+		purge();
+		return mReferences.size();
+	}
+
+	/**
+	 * The listeners alive right now. The array is the caller's own and is
+	 * not kept, so it doesn't hold the listeners past the dispatch.
+	 */
+	Object[] snapshot() {
+		Object[] listeners = new Object[mReferences.size()];
+		int count = 0;
+		for (int i = 0; i < mReferences.size(); ) {
+			T listener = mReferences.get(i).get();
+			if (listener == null) {
+				mReferences.remove(i);
+			} else {
+				listeners[count++] = listener;
+				i++;
+			}
+		}
+		if (count == listeners.length) {
+			return listeners;
+		}
+		Object[] trimmed = new Object[count];
+		System.arraycopy(listeners, 0, trimmed, 0, count);
+		return trimmed;
+	}
+
+	private int indexOf(T listener) {
+		purge();
+		for (int i = mReferences.size() - 1; i >= 0; i--) {
+			if (mReferences.get(i).get() == listener) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void purge() {
+		for (int i = mReferences.size() - 1; i >= 0; i--) {
+			if (mReferences.get(i).get() == null) {
+				mReferences.remove(i);
+			}
+		}
+	}
+}
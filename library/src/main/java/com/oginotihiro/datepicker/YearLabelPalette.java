@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2016 oginotihiro
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.oginotihiro.datepicker;
+
+import java.util.ArrayList;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+
+/**
+ * Text and indicator colors of the year labels and the header, resolved once
+ * per resources configuration and (color, darkColor) pair. Views keep a
+ * reference to it and compare by identity.
+ */
+@SuppressWarnings("deprecation")
+final class YearLabelPalette {
+	private static final int CIRCLE_ALPHA = 60;
+
+	private static final ArrayList<YearLabelPalette> sPalettes = new ArrayList<YearLabelPalette>();
+	private static Configuration sConfiguration;
+
+	final int color;
+	final int darkColor;
+
+	final int circleColor;
+	final ColorStateList yearTextColors;
+	final ColorStateList headerTextColors;
+
+	static YearLabelPalette get(Context context, int color, int darkColor) {
+		Resources resources = context.getResources();
+		Configuration configuration = resources.getConfiguration();
+		if (sConfiguration == null || !sConfiguration.equals(configuration)) {
+			sPalettes.clear();
+			sConfiguration = new Configuration(configuration);
+		}
+
+		for (int i = 0; i < sPalettes.size(); i++) {
+			YearLabelPalette palette = sPalettes.get(i);
+			if (palette.color == color && palette.darkColor == darkColor) {
+				return palette;
+			}
+		}
+		YearLabelPalette palette = new YearLabelPalette(resources, color, darkColor);
+		sPalettes.add(palette);
+		return palette;
+	}
+
+	private YearLabelPalette(Resources resources, int color, int darkColor) {
+		this.color = color;
+		this.darkColor = darkColor;
+
+		circleColor = (color & 0x00FFFFFF) | (CIRCLE_ALPHA << 24);
+
+		int normalColor = resources.getColor(R.color.date_picker_text_normal);
+		yearTextColors = new ColorStateList(new int[][]{
+				new int[]{android.R.attr.state_pressed},
+				new int[]{-android.R.attr.state_pressed, -android.R.attr.state_selected}
+		}, new int[]{
+				darkColor, normalColor
+		});
+		headerTextColors = new ColorStateList(new int[][]{
+				new int[]{-android.R.attr.state_pressed, -android.R.attr.state_selected},
+				new int[]{-android.R.attr.state_pressed, android.R.attr.state_selected},
+				new int[]{android.R.attr.state_pressed}
+		}, new int[]{
+				normalColor, color, darkColor
+		});
+	}
+}
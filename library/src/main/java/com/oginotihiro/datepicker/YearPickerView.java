@@ -15,18 +15,15 @@
  */
 package com.oginotihiro.datepicker;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.drawable.StateListDrawable;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
+import android.widget.BaseAdapter;
 import android.widget.ListView;
-import android.widget.TextView;
 
 public class YearPickerView extends ListView implements AdapterView.OnItemClickListener, DatePickerDialog.OnDateChangedListener {
 	private Context mContext;
@@ -44,7 +41,6 @@ public class YearPickerView extends ListView implements AdapterView.OnItemClickL
 
 		mContext = context;
 		mController = datePickerController;
-		mController.registerOnDateChangedListener(this); // 刷新页面
 
 		setLayoutParams(new ViewGroup.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
 	
@@ -54,7 +50,8 @@ public class YearPickerView extends ListView implements AdapterView.OnItemClickL
 		
 		init();
 		
-		onDateChanged();
+		onDateChanged(DateChangeEvent.refresh(CalendarDay.of(mController.getSelectedYear(),
+				mController.getSelectedMonth(), mController.getSelectedDayOfMonth())));
 	}
 
 	private void init() {
@@ -72,18 +69,17 @@ public class YearPickerView extends ListView implements AdapterView.OnItemClickL
 	}
 	
 	private void setUpAdapter() {
-		ArrayList<String> years = new ArrayList<String>();
-		for (int year = mController.getMinYear(); year <= mController.getMaxYear(); year++) {
-			years.add(String.format("%d", year));
-		}
-		mAdapter = new YearAdapter(mContext, R.layout.oginotihiro_year_label_text_view, years);
+		mAdapter = new YearAdapter(mContext);
 		setAdapter(mAdapter);
 	}
 
 	@Override
-	public void onDateChanged() {
+	public void onDateChanged(DateChangeEvent event) {
+		if (!event.hasChanged(DateChangeEvent.YEAR)) {
+			return;
+		}
 		mAdapter.notifyDataSetChanged();
-		postSetSelectionCentered(mController.getSelectedDay().year - mController.getMinYear());
+		postSetSelectionCentered(event.getNewDay().getYear() - mController.getMinYear());
 	}
 	
 	// item垂直方向居中
@@ -110,27 +106,51 @@ public class YearPickerView extends ListView implements AdapterView.OnItemClickL
 				mSelectedView = clickedView;
 				mAdapter.notifyDataSetChanged();
 			}
-			mController.onYearSelected(getYearFromTextView(clickedView));
+			mController.onYearSelected(mAdapter.getYear(position));
 		}
 	}
-	
-	private static int getYearFromTextView(TextView view) {
-		return Integer.valueOf(view.getText().toString());
-	}
 
-	private class YearAdapter extends ArrayAdapter<String> {
-		public YearAdapter(Context context, int resource, List<String> years) {
-			super(context, resource, years);
+	/**
+	 * One row per year of the controller's range, the year comes from the position and nothing is built up front.
+	 */
+	private class YearAdapter extends BaseAdapter {
+		private final LayoutInflater mInflater;
+
+		public YearAdapter(Context context) {
+			mInflater = LayoutInflater.from(context);
+		}
+
+		@Override
+		public int getCount() {
+			return mController.getMaxYear() - mController.getMinYear() + 1;
+		}
+
+		@Override
+		public Object getItem(int position) {
+			return null;
+		}
+
+		@Override
+		public long getItemId(int position) {
+			return position;
+		}
+
+		int getYear(int position) {
+			return mController.getMinYear() + position;
 		}
 
 		@Override
 		public View getView(int position, View convertView, ViewGroup parent) {
-			TextViewWithCircularIndicator v = (TextViewWithCircularIndicator) super.getView(position, convertView, parent);
+			TextViewWithCircularIndicator v = (TextViewWithCircularIndicator) convertView;
+			if (v == null) {
+				v = (TextViewWithCircularIndicator) mInflater.inflate(R.layout.oginotihiro_year_label_text_view, parent, false);
+			}
 
-			v.setColor(mController.getColor(), mController.getDarkColor());
+			v.setPalette(YearLabelPalette.get(mContext, mController.getColor(), mController.getDarkColor()));
 
-			int year = getYearFromTextView(v);
-			boolean selected = mController.getSelectedDay().year == year;
+			int year = getYear(position);
+			v.setText(DateTextCache.getYearLabel(year));
+			boolean selected = mController.getSelectedYear() == year;
 			v.drawIndicator(selected);
 
 			if (selected) {
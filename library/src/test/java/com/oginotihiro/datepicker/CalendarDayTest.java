@@ -0,0 +1,77 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class CalendarDayTest {
+    @Test
+    public void fields_areUnpacked() throws Exception {
+        CalendarDay day = new CalendarDay(9999, Calendar.DECEMBER, 31);
+        assertEquals(9999, day.getYear());
+        assertEquals(Calendar.DECEMBER, day.getMonth());
+        assertEquals(31, day.getDay());
+        assertEquals(CalendarMath.toEpochDay(9999, Calendar.DECEMBER, 31), day.toEpochDay());
+    }
+
+    @Test
+    public void valueSemantics() throws Exception {
+        CalendarDay a = new CalendarDay(2016, Calendar.MARCH, 1);
+        CalendarDay b = CalendarDay.of(2016, Calendar.MARCH, 1);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(0, a.compareTo(b));
+        assertEquals(b, CalendarDay.ofEpochDay(16861));
+
+        assertTrue(CalendarDay.of(2016, Calendar.FEBRUARY, 29).compareTo(a) < 0);
+        assertTrue(CalendarDay.of(2017, Calendar.JANUARY, 1).compareTo(a) > 0);
+        assertFalse(a.equals(CalendarDay.of(2016, Calendar.MARCH, 2)));
+    }
+
+    @Test
+    public void invalidDays_areRejected() throws Exception {
+        assertInvalid(2016, Calendar.FEBRUARY, 40);
+        assertInvalid(2015, Calendar.FEBRUARY, 29);
+        assertInvalid(2016, Calendar.MARCH, 0);
+        assertInvalid(2016, 12, 1);
+        assertInvalid(2016, -1, 1);
+        assertInvalid(0, Calendar.JANUARY, 1);
+        assertInvalid(10000, Calendar.JANUARY, 1);
+    }
+
+    private static void assertInvalid(int year, int month, int day) {
+        try {
+            CalendarDay.of(year, month, day);
+            fail("of " + year + "-" + month + "-" + day);
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new CalendarDay(year, month, day);
+            fail("new " + year + "-" + month + "-" + day);
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void of_reusesCachedInstances() throws Exception {
+        assertSame(CalendarDay.of(2016, Calendar.MARCH, 1), CalendarDay.of(2016, Calendar.MARCH, 1));
+    }
+
+    @Test
+    public void timeInMillis_usesTheDefaultTimeZone() throws Exception {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(1960, Calendar.JULY, 4, 0, 30);
+            assertEquals(CalendarDay.of(1960, Calendar.JULY, 4), new CalendarDay(calendar.getTimeInMillis()));
+            assertEquals(CalendarDay.of(1960, Calendar.JULY, 4), new CalendarDay(calendar));
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class CalendarMathTest {
+    private static GregorianCalendar prolepticUtc() {
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+        calendar.clear();
+        return calendar;
+    }
+
+    @Test
+    public void toEpochDay_matchesKnownDays() throws Exception {
+        assertEquals(0, CalendarMath.toEpochDay(1970, Calendar.JANUARY, 1));
+        assertEquals(-1, CalendarMath.toEpochDay(1969, Calendar.DECEMBER, 31));
+        assertEquals(16860, CalendarMath.toEpochDay(2016, Calendar.FEBRUARY, 29));
+        assertEquals(16861, CalendarMath.toEpochDay(2016, Calendar.MARCH, 1));
+        assertEquals(-719162, CalendarMath.toEpochDay(1, Calendar.JANUARY, 1));
+        assertEquals(2932896, CalendarMath.toEpochDay(9999, Calendar.DECEMBER, 31));
+    }
+
+    @Test
+    public void fromEpochDay_roundTrips() throws Exception {
+        int start = CalendarMath.toEpochDay(1, Calendar.JANUARY, 1);
+        int end = CalendarMath.toEpochDay(9999, Calendar.DECEMBER, 31);
+        for (int epochDay = start; epochDay <= end; epochDay++) {
+            int year = CalendarMath.getYear(epochDay);
+            int month = CalendarMath.getMonth(epochDay);
+            int day = CalendarMath.getDayOfMonth(epochDay);
+            assertEquals(epochDay, CalendarMath.toEpochDay(year, month, day));
+        }
+        assertEquals(2016, CalendarMath.getYear(16860));
+        assertEquals(Calendar.FEBRUARY, CalendarMath.getMonth(16860));
+        assertEquals(29, CalendarMath.getDayOfMonth(16860));
+    }
+
+    @Test
+    public void monthFields_matchProlepticGregorianCalendar() throws Exception {
+        GregorianCalendar calendar = prolepticUtc();
+        for (int year = 1; year <= 9999; year++) {
+            for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+                calendar.set(year, month, 1);
+                assertEquals(calendar.getActualMaximum(Calendar.DAY_OF_MONTH), CalendarMath.getDaysInMonth(year, month));
+                assertEquals(calendar.get(Calendar.DAY_OF_WEEK), CalendarMath.getDayOfWeek(year, month, 1));
+                assertEquals(calendar.getTimeInMillis() / TodayClock.DAY_IN_MILLIS
+                        - (calendar.getTimeInMillis() % TodayClock.DAY_IN_MILLIS < 0 ? 1 : 0),
+                        CalendarMath.toEpochDay(year, month, 1));
+            }
+        }
+    }
+
+    @Test
+    public void leapYears_followTheGregorianRule() throws Exception {
+        assertEquals(28, Utils.getDaysInMonth(1900, Calendar.FEBRUARY));
+        assertEquals(29, Utils.getDaysInMonth(2000, Calendar.FEBRUARY));
+        assertEquals(28, Utils.getDaysInMonth(2100, Calendar.FEBRUARY));
+        assertEquals(29, Utils.getDaysInMonth(2016, Calendar.FEBRUARY));
+    }
+
+    /**
+     * A timing run, skipped unless the tests run with -Dbenchmark=true.
+     */
+    @Test
+    public void benchmark_againstCalendar() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("benchmark"));
+        final int iterations = 200000;
+        GregorianCalendar calendar = prolepticUtc();
+        long calendarChecksum = 0;
+        long engineChecksum = 0;
+        long calendarNanos = 0;
+        long engineNanos = 0;
+
+        // warm up both paths before timing them
+        for (int round = 0; round < 2; round++) {
+            calendarChecksum = 0;
+            long calendarStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                int year = 1902 + i % 136;
+                int month = i % 12;
+                calendar.set(year, month, 1);
+                calendarChecksum += calendar.get(Calendar.DAY_OF_WEEK) + calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+            }
+            calendarNanos = System.nanoTime() - calendarStart;
+
+            engineChecksum = 0;
+            long engineStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                int year = 1902 + i % 136;
+                int month = i % 12;
+                engineChecksum += CalendarMath.getDayOfWeek(year, month, 1) + CalendarMath.getDaysInMonth(year, month);
+            }
+            engineNanos = System.nanoTime() - engineStart;
+        }
+        assertEquals(calendarChecksum, engineChecksum);
+        assertTrue("Calendar " + calendarNanos / iterations + " ns/op, CalendarMath " + engineNanos / iterations + " ns/op",
+                engineNanos < calendarNanos);
+    }
+}
@@ -0,0 +1,28 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+public class DateChangeEventTest {
+    @Test
+    public void changedFields_followTheDays() throws Exception {
+        CalendarDay march1 = CalendarDay.of(2016, Calendar.MARCH, 1);
+
+        DateChangeEvent dayOnly = new DateChangeEvent(march1, CalendarDay.of(2016, Calendar.MARCH, 2), 0);
+        assertEquals(DateChangeEvent.DAY, dayOnly.getChangedFields());
+        assertFalse(dayOnly.hasChanged(DateChangeEvent.MONTH | DateChangeEvent.YEAR));
+
+        DateChangeEvent nextYear = new DateChangeEvent(march1, CalendarDay.of(2017, Calendar.MARCH, 1), 0);
+        assertEquals(DateChangeEvent.YEAR, nextYear.getChangedFields());
+
+        DateChangeEvent rangeOnly = new DateChangeEvent(march1, march1, DateChangeEvent.RANGE);
+        assertEquals(DateChangeEvent.RANGE, rangeOnly.getChangedFields());
+        assertSame(march1, rangeOnly.getOldDay());
+
+        assertEquals(DateChangeEvent.ALL, DateChangeEvent.refresh(march1).getChangedFields());
+        assertEquals(0, new DateChangeEvent(march1, march1, 0).getChangedFields());
+    }
+}
@@ -0,0 +1,172 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+public class DatePickerDialogTest {
+    private static final int OPEN_CLOSE_CYCLES = 1000;
+
+    private static class CountingListener implements DatePickerDialog.OnDateChangedListener {
+        int calls;
+
+        @Override
+        public void onDateChanged(DateChangeEvent event) {
+            calls++;
+        }
+    }
+
+    /**
+     * The listener bookkeeping only, the sample's DatePickerDialogLifecycleTest
+     * runs the real fragment lifecycle and checks closed views are collected.
+     */
+    @Test
+    public void openCloseCycles_keepListenersAndDispatchFlat() throws Exception {
+        DatePickerDialog dialog = DatePickerDialog.newInstance(null, 2016, 0, 1);
+        CountingListener appListener = new CountingListener();
+        dialog.registerOnDateChangedListener(appListener);
+
+        for (int i = 0; i < OPEN_CLOSE_CYCLES; i++) {
+            // what onCreateView does with the two pickers it builds
+            CountingListener yearPicker = new CountingListener();
+            CountingListener dayPicker = new CountingListener();
+            dialog.registerViewListener(yearPicker);
+            dialog.registerViewListener(dayPicker);
+            assertEquals(3, dialog.getDateChangedListenerCount());
+
+            dialog.updatePickers(DateChangeEvent.SELECTED_DAYS);
+            assertEquals(1, yearPicker.calls);
+            assertEquals(1, dayPicker.calls);
+            assertEquals(2 * i + 1, appListener.calls);
+
+            // what onDestroyView does
+            dialog.releaseViewListeners();
+            assertEquals(1, dialog.getDateChangedListenerCount());
+
+            // a closed view is not called any more
+            dialog.updatePickers(DateChangeEvent.SELECTED_DAYS);
+            assertEquals(1, yearPicker.calls);
+            assertEquals(1, dayPicker.calls);
+        }
+        assertEquals(2 * OPEN_CLOSE_CYCLES, appListener.calls);
+    }
+
+    @Test
+    public void disabledDays_rejectInvalidDays() throws Exception {
+        DatePickerDialog dialog = DatePickerDialog.newInstance(null, 2016, 0, 1);
+        dialog.setDayDisabled(2016, Calendar.FEBRUARY, 29, true);
+
+        assertInvalid(dialog, 2016, Calendar.FEBRUARY, 0);
+        assertInvalid(dialog, 2015, Calendar.FEBRUARY, 29);
+        assertInvalid(dialog, 0, Calendar.JANUARY, 1);
+        assertInvalid(dialog, 10000, Calendar.JANUARY, 1);
+        assertInvalid(dialog, 2016, 12, 1);
+
+        try {
+            dialog.setDisabledDayMask(2015, Calendar.FEBRUARY, MonthMaskSet.bit(29));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            dialog.setDisabledDays(Arrays.asList(CalendarDay.of(2016, Calendar.MARCH, 1), CalendarDay.of(2016, Calendar.APRIL, 31)));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // the rejected calls left the set alone
+        assertTrue(dialog.isDayDisabled(2016, Calendar.FEBRUARY, 29));
+        assertFalse(dialog.isDayDisabled(2016, Calendar.MARCH, 1));
+        assertEquals(0, dialog.getDisabledDayMask(2015, Calendar.FEBRUARY));
+    }
+
+    @Test
+    public void selectedDays_rejectInvalidDays() throws Exception {
+        DatePickerDialog dialog = DatePickerDialog.newInstance(null, 2016, 0, 1);
+        dialog.setDaySelected(2016, Calendar.FEBRUARY, 29, true);
+
+        int[][] invalid = {{2016, Calendar.FEBRUARY, 40}, {2016, Calendar.FEBRUARY, 0}, {2015, Calendar.FEBRUARY, 29},
+                {0, Calendar.JANUARY, 1}, {10000, Calendar.JANUARY, 1}, {2016, 12, 1}};
+        for (int[] date : invalid) {
+            try {
+                dialog.setDaySelected(date[0], date[1], date[2], true);
+                fail(date[0] + "-" + date[1] + "-" + date[2]);
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        try {
+            dialog.setSelectedDayMask(2015, Calendar.FEBRUARY, MonthMaskSet.bit(29));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+
+        // the rejected calls left the set alone
+        assertEquals(1, dialog.getSelectedDayCount());
+        assertTrue(dialog.isDaySelected(2016, Calendar.FEBRUARY, 29));
+        assertFalse(dialog.isDaySelected(2016, Calendar.MARCH, 8));
+    }
+
+    @Test
+    public void setDateRange_rejectsInvalidDays() throws Exception {
+        DatePickerDialog dialog = DatePickerDialog.newInstance(null, 2016, 0, 1);
+        try {
+            dialog.setDateRange(2016, Calendar.FEBRUARY, 30, 2016, Calendar.MARCH, 5);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            dialog.setDateRange(2016, Calendar.MARCH, 1, 2016, 12, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(CalendarMath.NO_EPOCH_DAY, dialog.getRangeStart());
+        assertEquals(CalendarMath.NO_EPOCH_DAY, dialog.getRangeEnd());
+
+        dialog.setDateRange(2016, Calendar.FEBRUARY, 29, 2016, Calendar.MARCH, 5);
+        assertEquals(CalendarMath.toEpochDay(2016, Calendar.FEBRUARY, 29), dialog.getRangeStart());
+    }
+
+    @Test
+    public void rangeMode_followsTheLastSelectionMode() throws Exception {
+        DatePickerDialog dialog = DatePickerDialog.newInstance(null, 2016, 0, 1);
+        assertFalse(dialog.isRangeMode());
+
+        dialog.setDateRange(2016, Calendar.FEBRUARY, 3, 2016, Calendar.FEBRUARY, 5);
+        assertTrue(dialog.isRangeMode());
+        assertFalse(dialog.isMultiSelection());
+
+        dialog.setOnDatesSetListener(null);
+        assertFalse(dialog.isRangeMode());
+        assertTrue(dialog.isMultiSelection());
+    }
+
+    @Test
+    public void initialize_rejectsDatesThePickerCannotShow() throws Exception {
+        int[][] invalid = {{0, Calendar.JANUARY, 1}, {10000, Calendar.JANUARY, 1}, {2016, -1, 1}, {2016, 12, 1},
+                {2016, Calendar.JANUARY, 0}, {2015, Calendar.FEBRUARY, 29}};
+        for (int[] date : invalid) {
+            DatePickerDialog dialog = DatePickerDialog.newInstance(null, 2016, 0, 1);
+            try {
+                dialog.initialize(null, date[0], date[1], date[2], true, 0, 0);
+                fail(date[0] + "-" + date[1] + "-" + date[2]);
+            } catch (IllegalArgumentException expected) {
+            }
+            // the rejected date did not widen the range
+            assertEquals(1902, dialog.getMinYear());
+            assertEquals(2037, dialog.getMaxYear());
+        }
+
+        DatePickerDialog dialog = DatePickerDialog.newInstance(null, MonthLayout.MAX_YEAR, Calendar.DECEMBER, 31);
+        assertEquals(MonthLayout.MAX_YEAR, dialog.getMaxYear());
+    }
+
+    private static void assertInvalid(DatePickerDialog dialog, int year, int month, int day) {
+        try {
+            dialog.setDayDisabled(year, month, day, true);
+            fail(year + "-" + month + "-" + day);
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.text.DateFormatSymbols;
+import java.util.Calendar;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class DateTextCacheTest {
+    private Locale mDefaultLocale;
+
+    @Before
+    public void setUp() {
+        mDefaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.US);
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(mDefaultLocale);
+    }
+
+    @Test
+    public void dayNumbers_areSharedUntilLocaleChanges() throws Exception {
+        char[] first = DateTextCache.getDayNumber(17);
+        assertSame(first, DateTextCache.getDayNumber(17));
+
+        Locale.setDefault(Locale.GERMANY);
+        assertNotSame(first, DateTextCache.getDayNumber(17));
+    }
+
+    @Test
+    public void labels_matchDateFormatSymbols() throws Exception {
+        Locale.setDefault(Locale.FRANCE);
+        DateFormatSymbols symbols = new DateFormatSymbols(Locale.FRANCE);
+        for (int dayOfWeek = Calendar.SUNDAY; dayOfWeek <= Calendar.SATURDAY; dayOfWeek++) {
+            assertEquals(symbols.getShortWeekdays()[dayOfWeek].toUpperCase(Locale.FRANCE), DateTextCache.getShortWeekdayLabel(dayOfWeek));
+            assertEquals(symbols.getWeekdays()[dayOfWeek].toUpperCase(Locale.FRANCE), DateTextCache.getWeekdayLabel(dayOfWeek));
+        }
+        assertEquals(symbols.getMonths()[Calendar.MARCH].toUpperCase(Locale.FRANCE), DateTextCache.getMonthLabel(Calendar.MARCH));
+        assertEquals("05", DateTextCache.getDayOfMonthLabel(5));
+    }
+
+    @Test
+    public void yearLabels_areCachedUntilEvicted() throws Exception {
+        String label = DateTextCache.getYearLabel(2016);
+        assertEquals("2016", label);
+        assertSame(label, DateTextCache.getYearLabel(2016));
+
+        // same slot, different year
+        assertEquals("2080", DateTextCache.getYearLabel(2080));
+        assertNotSame(label, DateTextCache.getYearLabel(2016));
+
+        // not zero padded
+        assertEquals("1", DateTextCache.getYearLabel(1));
+        assertEquals("999", DateTextCache.getYearLabel(999));
+    }
+
+    /**
+     * Covers only the getDayNumber lookup onDraw makes per day, onDraw itself is
+     * covered by the instrumented SimpleMonthViewDrawTest.
+     */
+    @Test
+    public void dayNumbers_steadyStateLookupDoesNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("needs per thread allocation counters", bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+
+        // one "frame" worth of lookups for six visible months, warmed up first
+        int checksum = lookupFrames(1000);
+
+        long baselineStart = threadBean.getThreadAllocatedBytes(threadId);
+        long baselineEnd = threadBean.getThreadAllocatedBytes(threadId);
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        checksum += lookupFrames(10000);
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+
+        assertTrue(checksum > 0);
+        assertEquals(baselineEnd - baselineStart, after - before);
+    }
+
+    private static int lookupFrames(int frames) {
+        int checksum = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            for (int month = 0; month < 6; month++) {
+                for (int day = 1; day <= DateTextCache.MAX_DAY_NUMBER; day++) {
+                    checksum += DateTextCache.getDayNumber(day).length;
+                }
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,73 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+public class DayRuleTest {
+    private static int days(int... days) {
+        int mask = 0;
+        for (int day : days) {
+            mask |= MonthMaskSet.bit(day);
+        }
+        return mask;
+    }
+
+    @Test
+    public void weekends_matchesSaturdaysAndSundays() throws Exception {
+        // 2016-03-01 was a Tuesday
+        assertEquals(days(5, 6, 12, 13, 19, 20, 26, 27), DayRule.weekends().getMask(2016, Calendar.MARCH));
+    }
+
+    @Test
+    public void nthDayOfWeek_picksTheRequestedOccurrence() throws Exception {
+        assertEquals(days(8), DayRule.nthDayOfWeek(2, Calendar.TUESDAY).getMask(2016, Calendar.MARCH));
+        assertEquals(days(29), DayRule.nthDayOfWeek(-1, Calendar.TUESDAY).getMask(2016, Calendar.MARCH));
+        assertEquals(days(29), DayRule.nthDayOfWeek(5, Calendar.TUESDAY).getMask(2016, Calendar.MARCH));
+        assertEquals(0, DayRule.nthDayOfWeek(5, Calendar.MONDAY).getMask(2016, Calendar.MARCH));
+    }
+
+    @Test
+    public void lastBusinessDayOfMonth_skipsTheWeekend() throws Exception {
+        // 2016-04-30 was a Saturday
+        assertEquals(days(29), DayRule.lastBusinessDayOfMonth().getMask(2016, Calendar.APRIL));
+        assertEquals(days(31), DayRule.lastBusinessDayOfMonth().getMask(2016, Calendar.MARCH));
+    }
+
+    @Test
+    public void annualRange_wrapsAroundTheYear() throws Exception {
+        DayRule holidays = DayRule.annualRange(Calendar.DECEMBER, 24, Calendar.JANUARY, 2);
+        assertEquals(days(24, 25, 26, 27, 28, 29, 30, 31), holidays.getMask(2015, Calendar.DECEMBER));
+        assertEquals(days(1, 2), holidays.getMask(2016, Calendar.JANUARY));
+        assertEquals(0, holidays.getMask(2016, Calendar.JUNE));
+    }
+
+    @Test
+    public void composites_combineMasks() throws Exception {
+        DayRule open = DayRule.allOf(DayRule.not(DayRule.weekends()),
+                DayRule.not(DayRule.annualRange(Calendar.DECEMBER, 24, Calendar.JANUARY, 2)));
+        assertEquals(days(1, 2, 3, 4, 7, 8, 9, 10, 11, 14, 15, 16, 17, 18, 21, 22, 23),
+                open.getMask(2015, Calendar.DECEMBER));
+        assertEquals(DayRule.allDaysMask(29),
+                DayRule.anyOf(DayRule.weekends(), DayRule.not(DayRule.weekends())).getMask(2016, Calendar.FEBRUARY));
+    }
+
+    @Test
+    public void getMask_staysCorrectPastTheCacheSize() throws Exception {
+        DayRule weekends = DayRule.weekends();
+        DayRule tuesdays = DayRule.daysOfWeek(Calendar.TUESDAY);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int year = 2000; year < 2020; year++) {
+                for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+                    int all = DayRule.allDaysMask(MonthLayout.getDaysInMonth(year, month));
+                    int mask = weekends.getMask(year, month);
+                    assertEquals(mask, weekends.getMask(year, month));
+                    assertEquals(0, mask & tuesdays.getMask(year, month));
+                    assertEquals(all, mask | DayRule.not(weekends).getMask(year, month));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class DecorationLoaderTest {
+    private static class QueueExecutor implements Executor {
+        final ArrayList<Runnable> queue = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void runAll() {
+            while (!queue.isEmpty()) {
+                queue.remove(0).run();
+            }
+        }
+    }
+
+    private static class InMemoryProvider implements DayDecorationProvider {
+        final ArrayList<Integer> loadedMonths = new ArrayList<Integer>();
+        int failures;
+
+        @Override
+        public void loadDecorations(int year, int month, MonthDecorations out) {
+            loadedMonths.add(year * 12 + month);
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("backend down");
+            }
+            out.setDot(1);
+            out.setLabel(15, "$" + month);
+        }
+    }
+
+    private static class RecordingCallback implements DecorationLoader.Callback {
+        final ArrayList<Integer> loadedMonths = new ArrayList<Integer>();
+
+        @Override
+        public void onDecorationsLoaded(int year, int month, MonthDecorations decorations) {
+            loadedMonths.add(year * 12 + month);
+        }
+    }
+
+    private QueueExecutor background;
+    private QueueExecutor main;
+    private InMemoryProvider provider;
+    private RecordingCallback callback;
+    private DecorationLoader loader;
+
+    @Before
+    public void setUp() throws Exception {
+        background = new QueueExecutor();
+        main = new QueueExecutor();
+        provider = new InMemoryProvider();
+        callback = new RecordingCallback();
+        loader = new DecorationLoader(provider, background, main, 4, callback);
+    }
+
+    @Test
+    public void get_loadsInTheBackgroundAndCachesTheResult() throws Exception {
+        assertNull(loader.get(2016, Calendar.MARCH));
+        assertNull(loader.get(2016, Calendar.MARCH));
+        assertEquals(1, loader.getPendingCount());
+        assertTrue(provider.loadedMonths.isEmpty());
+
+        background.runAll();
+        assertEquals(1, provider.loadedMonths.size());
+        assertTrue(callback.loadedMonths.isEmpty());
+
+        main.runAll();
+        assertEquals(1, callback.loadedMonths.size());
+        MonthDecorations decorations = loader.get(2016, Calendar.MARCH);
+        assertNotNull(decorations);
+        assertEquals(MonthMaskSet.bit(1), decorations.getDotMask());
+        assertEquals("$2", decorations.getLabel(15));
+        assertNull(decorations.getLabel(16));
+        assertEquals(0, loader.getPendingCount());
+    }
+
+    @Test
+    public void setVisibleRange_cancelsMonthsScrolledPast() throws Exception {
+        for (int month = Calendar.JANUARY; month <= Calendar.DECEMBER; month++) {
+            loader.get(2016, month);
+        }
+        loader.setVisibleRange(2016, Calendar.NOVEMBER, 2016, Calendar.DECEMBER);
+
+        background.runAll();
+        main.runAll();
+        // October and January 2017 are prefetched next to the visible months
+        assertEquals(4, provider.loadedMonths.size());
+        assertTrue(provider.loadedMonths.contains(2016 * 12 + Calendar.OCTOBER));
+        assertTrue(provider.loadedMonths.contains(2017 * 12 + Calendar.JANUARY));
+        assertEquals(4, callback.loadedMonths.size());
+    }
+
+    @Test
+    public void setVisibleRange_prefetchesOnlyInsideTheYearRange() throws Exception {
+        loader.setYearRange(2016, 2016);
+        loader.setVisibleRange(2016, Calendar.NOVEMBER, 2016, Calendar.DECEMBER);
+
+        background.runAll();
+        main.runAll();
+        // October is prefetched, January 2017 is past the last year
+        assertEquals(1, provider.loadedMonths.size());
+        assertTrue(provider.loadedMonths.contains(2016 * 12 + Calendar.OCTOBER));
+    }
+
+    @Test
+    public void failedLoads_areRequestedAgain() throws Exception {
+        provider.failures = 1;
+        assertNull(loader.get(2016, Calendar.MARCH));
+        background.runAll();
+        main.runAll();
+
+        assertEquals(0, loader.getPendingCount());
+        assertTrue(callback.loadedMonths.isEmpty());
+
+        assertNull(loader.get(2016, Calendar.MARCH));
+        assertEquals(1, loader.getPendingCount());
+        background.runAll();
+        main.runAll();
+        assertEquals(1, callback.loadedMonths.size());
+        assertNotNull(loader.get(2016, Calendar.MARCH));
+    }
+
+    @Test
+    public void cancelAll_dropsResultsStillInFlight() throws Exception {
+        loader.get(2016, Calendar.MARCH);
+        background.runAll();
+        loader.cancelAll();
+        main.runAll();
+
+        assertTrue(callback.loadedMonths.isEmpty());
+        assertNull(loader.get(2016, Calendar.MARCH));
+    }
+
+    @Test
+    public void cache_isBounded() throws Exception {
+        for (int month = Calendar.JANUARY; month <= Calendar.JUNE; month++) {
+            loader.get(2016, month);
+        }
+        background.runAll();
+        main.runAll();
+
+        assertNull(loader.get(2016, Calendar.JANUARY));
+        assertNotNull(loader.get(2016, Calendar.JUNE));
+    }
+}
@@ -0,0 +1,59 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+public class MonthMaskSetTest {
+    @Test
+    public void addAndRemove_keepTheSizeAndMonthMasks() throws Exception {
+        MonthMaskSet set = new MonthMaskSet();
+        assertTrue(set.add(2016, Calendar.MARCH, 1));
+        assertFalse(set.add(2016, Calendar.MARCH, 1));
+        assertTrue(set.addEpochDay(CalendarMath.toEpochDay(2016, Calendar.MARCH, 31)));
+        assertTrue(set.add(1902, Calendar.JANUARY, 15));
+
+        assertEquals(3, set.size());
+        assertEquals(MonthMaskSet.bit(1) | MonthMaskSet.bit(31), set.getMask(2016, Calendar.MARCH));
+        assertTrue(set.containsEpochDay(CalendarMath.toEpochDay(1902, Calendar.JANUARY, 15)));
+
+        assertTrue(set.remove(2016, Calendar.MARCH, 1));
+        assertFalse(set.remove(2016, Calendar.MARCH, 1));
+        set.setMask(2016, Calendar.MARCH, 0);
+        assertEquals(1, set.size());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void epochDays_roundTripInAscendingOrder() throws Exception {
+        MonthMaskSet set = new MonthMaskSet();
+        int[] days = {
+                CalendarMath.toEpochDay(2037, Calendar.DECEMBER, 31),
+                CalendarMath.toEpochDay(1902, Calendar.JANUARY, 1),
+                CalendarMath.toEpochDay(2016, Calendar.FEBRUARY, 29),
+        };
+        assertTrue(set.setEpochDays(days, true));
+
+        int[] epochDays = set.toEpochDays();
+        assertEquals(3, epochDays.length);
+        assertEquals(days[1], epochDays[0]);
+        assertEquals(days[2], epochDays[1]);
+        assertEquals(days[0], epochDays[2]);
+
+        final StringBuilder visited = new StringBuilder();
+        set.forEach(new DayVisitor() {
+            @Override
+            public void visit(int year, int monthOfYear, int dayOfMonth) {
+                visited.append(year).append('-').append(monthOfYear).append('-').append(dayOfMonth).append(' ');
+            }
+        });
+        assertEquals("1902-0-1 2016-1-29 2037-11-31 ", visited.toString());
+
+        assertTrue(set.setEpochDays(days, false));
+        assertTrue(set.isEmpty());
+    }
+}
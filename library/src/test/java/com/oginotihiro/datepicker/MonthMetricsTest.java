@@ -0,0 +1,84 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.*;
+
+public class MonthMetricsTest {
+    private static final int ROW_HEIGHT = 10;
+    private static final int HEADER_HEIGHT = 5;
+
+    // Jan 2016 has 6 rows, Feb to Apr 5 rows, Dec 2016 5 rows
+    private final MonthMetrics metrics = new MonthMetrics(2016, Calendar.SUNDAY, ROW_HEIGHT, HEADER_HEIGHT, false);
+    private final MonthMetrics uniform = new MonthMetrics(2016, Calendar.SUNDAY, ROW_HEIGHT, HEADER_HEIGHT, true);
+
+    @Test
+    public void height_followsTheRowsOfTheMonth() throws Exception {
+        assertEquals(65, metrics.getHeight(0));
+        assertEquals(55, metrics.getHeight(1));
+        assertEquals(55, metrics.getHeight(11));
+    }
+
+    @Test
+    public void snapDistance_picksTheClosestMonthStart() throws Exception {
+        // month tops below the list top: 0, 65, 120, 175
+        assertEquals(120, metrics.getSnapDistance(0, 0, 100, 24));
+        assertEquals(65, metrics.getSnapDistance(0, 0, 80, 24));
+        assertEquals(0, metrics.getSnapDistance(0, 0, 20, 24));
+        // from a month partly scrolled past
+        assertEquals(45, metrics.getSnapDistance(0, -20, 50, 24));
+        assertEquals(-20, metrics.getSnapDistance(0, -20, 5, 24));
+    }
+
+    @Test
+    public void snapDistance_goesBackwards() throws Exception {
+        // Dec 2016 is 55 high, Nov 2016 is 55
+        assertEquals(-55, metrics.getSnapDistance(12, 0, -30, 24));
+        assertEquals(0, metrics.getSnapDistance(12, 0, -20, 24));
+        assertEquals(-110, metrics.getSnapDistance(12, 0, -100, 24));
+    }
+
+    @Test
+    public void snapDistance_stopsAtTheEnds() throws Exception {
+        assertEquals(-20, metrics.getSnapDistance(0, -20, -500, 24));
+        assertEquals(65 + 55 * 2, metrics.getSnapDistance(0, 0, 10000, 4));
+    }
+
+    @Test
+    public void uniform_givesEveryMonthSixRows() throws Exception {
+        for (int position = 0; position < 24; position++) {
+            assertEquals(65, uniform.getHeight(position));
+        }
+    }
+
+    @Test
+    public void uniform_offsetsAndPositionsRoundTrip() throws Exception {
+        assertEquals(0, uniform.getOffset(0));
+        assertEquals(65 * 12, uniform.getOffset(12));
+        // the last month of year 9999 counted from year 1
+        MonthMetrics wide = new MonthMetrics(1, Calendar.SUNDAY, ROW_HEIGHT, HEADER_HEIGHT, true);
+        int last = 9999 * 12 - 1;
+        assertEquals(last * 65, wide.getOffset(last));
+        assertEquals(last, wide.getPosition(wide.getOffset(last)));
+
+        assertEquals(0, uniform.getPosition(-5));
+        assertEquals(0, uniform.getPosition(64));
+        assertEquals(1, uniform.getPosition(65));
+    }
+
+    @Test
+    public void uniform_snapDistanceRoundsToTheNearestMonth() throws Exception {
+        assertEquals(130, uniform.getSnapDistance(0, 0, 100, 24));
+        assertEquals(65, uniform.getSnapDistance(0, 0, 80, 24));
+        assertEquals(-65, uniform.getSnapDistance(12, 0, -40, 24));
+        assertEquals(-20, uniform.getSnapDistance(0, -20, -500, 24));
+        assertEquals(65 * 3, uniform.getSnapDistance(0, 0, 10000, 4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void offsets_needUniformHeights() throws Exception {
+        metrics.getOffset(1);
+    }
+}
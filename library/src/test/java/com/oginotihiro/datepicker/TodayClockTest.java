@@ -0,0 +1,100 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class TodayClockTest {
+    private static final TimeZone TOKYO = TimeZone.getTimeZone("Asia/Tokyo");
+    private static final TimeZone LOS_ANGELES = TimeZone.getTimeZone("America/Los_Angeles");
+
+    private static class FakeTimeSource implements TodayClock.TimeSource {
+        long millis;
+        TimeZone timeZone;
+
+        FakeTimeSource(long millis, TimeZone timeZone) {
+            this.millis = millis;
+            this.timeZone = timeZone;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return millis;
+        }
+
+        @Override
+        public TimeZone getTimeZone() {
+            return timeZone;
+        }
+    }
+
+    private static class CountingListener implements TodayClock.OnDayChangedListener {
+        int count;
+
+        @Override
+        public void onDayChanged(TodayClock clock) {
+            count++;
+        }
+    }
+
+    private static long millisOf(TimeZone timeZone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(timeZone);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void today_isComputedInTheSourceTimeZone() throws Exception {
+        FakeTimeSource source = new FakeTimeSource(millisOf(TOKYO, 2016, Calendar.MARCH, 1, 0, 30), TOKYO);
+        TodayClock clock = new TodayClock(source, null);
+
+        assertEquals(2016, clock.getYear());
+        assertEquals(Calendar.MARCH, clock.getMonth());
+        assertEquals(1, clock.getDayOfMonth());
+        assertEquals(16861, clock.getEpochDay());
+        assertEquals(1, clock.getTodayInMonth(2016, Calendar.MARCH));
+        assertEquals(-1, clock.getTodayInMonth(2016, Calendar.FEBRUARY));
+
+        source.timeZone = LOS_ANGELES;
+        clock.refresh();
+        assertEquals(Calendar.FEBRUARY, clock.getMonth());
+        assertEquals(29, clock.getDayOfMonth());
+        assertEquals(16860, clock.getEpochDay());
+    }
+
+    @Test
+    public void refresh_notifiesOnlyWhenTheDayChanges() throws Exception {
+        FakeTimeSource source = new FakeTimeSource(millisOf(LOS_ANGELES, 2015, Calendar.DECEMBER, 31, 23, 0), LOS_ANGELES);
+        TodayClock clock = new TodayClock(source, null);
+        CountingListener listener = new CountingListener();
+        clock.registerOnDayChangedListener(listener);
+
+        assertEquals(60 * 60 * 1000L, clock.getMillisUntilNextDay());
+
+        source.millis += 30 * 60 * 1000L;
+        clock.refresh();
+        assertEquals(0, listener.count);
+
+        source.millis += 30 * 60 * 1000L;
+        clock.refresh();
+        assertEquals(1, listener.count);
+        assertEquals(2016, clock.getYear());
+        assertEquals(1, clock.getTodayInMonth(2016, Calendar.JANUARY));
+
+        clock.unregisterOnDayChangedListener(listener);
+        source.millis += TodayClock.DAY_IN_MILLIS;
+        clock.refresh();
+        assertEquals(1, listener.count);
+    }
+
+    @Test
+    public void epochDay_isFlooredBefore1970() throws Exception {
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        TodayClock clock = new TodayClock(new FakeTimeSource(millisOf(utc, 1969, Calendar.DECEMBER, 31, 12, 0), utc), null);
+        assertEquals(-1, clock.getEpochDay());
+    }
+}
@@ -0,0 +1,88 @@
+package com.oginotihiro.datepicker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeakListenerListTest {
+    private static final int UNREGISTERED_LISTENERS = 1000;
+
+    private static class CountingListener implements DatePickerDialog.OnDateChangedListener {
+        int calls;
+
+        @Override
+        public void onDateChanged(DateChangeEvent event) {
+            calls++;
+        }
+    }
+
+    private static int dispatch(WeakListenerList<DatePickerDialog.OnDateChangedListener> list) {
+        DateChangeEvent event = DateChangeEvent.refresh(CalendarDay.of(2016, 0, 1));
+        Object[] listeners = list.snapshot();
+        for (int i = 0; i < listeners.length; i++) {
+            ((DatePickerDialog.OnDateChangedListener) listeners[i]).onDateChanged(event);
+        }
+        return listeners.length;
+    }
+
+    @Test
+    public void add_ignoresDuplicates() throws Exception {
+        WeakListenerList<DatePickerDialog.OnDateChangedListener> list = new WeakListenerList<DatePickerDialog.OnDateChangedListener>();
+        CountingListener listener = new CountingListener();
+
+        assertTrue(list.add(listener));
+        assertFalse(list.add(listener));
+        assertEquals(1, list.size());
+
+        dispatch(list);
+        assertEquals(1, listener.calls);
+
+        assertTrue(list.remove(listener));
+        assertFalse(list.remove(listener));
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void collectedListeners_areDropped() throws Exception {
+        WeakListenerList<DatePickerDialog.OnDateChangedListener> list = new WeakListenerList<DatePickerDialog.OnDateChangedListener>();
+        CountingListener kept = new CountingListener();
+        list.add(kept);
+
+        for (int i = 0; i < UNREGISTERED_LISTENERS; i++) {
+            // never unregistered
+            list.add(new CountingListener());
+        }
+
+        for (int i = 0; i < 20 && list.size() > 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, list.size());
+        assertEquals(1, dispatch(list));
+        assertEquals(1, kept.calls);
+    }
+
+    @Test
+    public void dispatch_letsListenersRemoveThemselves() throws Exception {
+        final WeakListenerList<DatePickerDialog.OnDateChangedListener> list = new WeakListenerList<DatePickerDialog.OnDateChangedListener>();
+        CountingListener first = new CountingListener() {
+            @Override
+            public void onDateChanged(DateChangeEvent event) {
+                super.onDateChanged(event);
+                list.remove(this);
+            }
+        };
+        CountingListener second = new CountingListener();
+        list.add(first);
+        list.add(second);
+
+        dispatch(list);
+        assertEquals(1, first.calls);
+        assertEquals(1, second.calls);
+
+        dispatch(list);
+        assertEquals(1, first.calls);
+        assertEquals(2, second.calls);
+    }
+}
@@ -0,0 +1,120 @@
+package com.oginotihiro.datepicker.sample;
+
+import android.support.v4.app.FragmentManager;
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.oginotihiro.datepicker.DateChangeEvent;
+import com.oginotihiro.datepicker.DatePickerDialog;
+import com.oginotihiro.datepicker.DayPickerView;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * Shows and dismisses one DatePickerDialog through the real fragment
+ * lifecycle and checks the month lists of the closed dialogs can be
+ * collected while the app's own listener stays registered.
+ */
+public class DatePickerDialogLifecycleTest extends ActivityInstrumentationTestCase2<MainActivity> {
+    private static final String TAG = "lifecycle";
+    private static final int SHOW_DISMISS_CYCLES = 20;
+    private static final int GC_ATTEMPTS = 20;
+
+    private static class CountingListener implements DatePickerDialog.OnDateChangedListener {
+        int calls;
+
+        @Override
+        public void onDateChanged(DateChangeEvent event) {
+            calls++;
+        }
+    }
+
+    public DatePickerDialogLifecycleTest() {
+        super(MainActivity.class);
+    }
+
+    public void testShowDismissCycles_releaseClosedDayPickerViews() throws Exception {
+        final FragmentManager fragmentManager = getActivity().getSupportFragmentManager();
+        final DatePickerDialog dialog = DatePickerDialog.newInstance(null, 2016, 0, 1);
+        final CountingListener appListener = new CountingListener();
+        dialog.registerOnDateChangedListener(appListener);
+
+        ArrayList<WeakReference<DayPickerView>> closedViews = new ArrayList<WeakReference<DayPickerView>>();
+        for (int i = 0; i < SHOW_DISMISS_CYCLES; i++) {
+            final DayPickerView[] shown = new DayPickerView[1];
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    dialog.show(fragmentManager, TAG);
+                    fragmentManager.executePendingTransactions();
+                    shown[0] = findDayPickerView(dialog.getView());
+                }
+            });
+            assertNotNull(shown[0]);
+            closedViews.add(new WeakReference<DayPickerView>(shown[0]));
+            shown[0] = null;
+
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    dialog.dismiss();
+                    fragmentManager.executePendingTransactions();
+                }
+            });
+            getInstrumentation().waitForIdleSync();
+        }
+
+        // the window of the last dialog may still be finishing its exit, only the older ones are checked
+        closedViews.remove(closedViews.size() - 1);
+        for (int i = 0; i < GC_ATTEMPTS && countAlive(closedViews) > 0; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            Thread.sleep(50);
+        }
+        assertEquals(0, countAlive(closedViews));
+
+        // the app's listener survived the cycles and is still called
+        int calls = appListener.calls;
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                dialog.show(fragmentManager, TAG);
+                fragmentManager.executePendingTransactions();
+                dialog.onDayOfMonthSelected(2016, 0, 9);
+                if (dialog.isAdded()) {
+                    dialog.dismiss();
+                }
+                fragmentManager.executePendingTransactions();
+            }
+        });
+        assertTrue(appListener.calls > calls);
+    }
+
+    private static int countAlive(ArrayList<WeakReference<DayPickerView>> views) {
+        int alive = 0;
+        for (int i = 0; i < views.size(); i++) {
+            if (views.get(i).get() != null) {
+                alive++;
+            }
+        }
+        return alive;
+    }
+
+    private static DayPickerView findDayPickerView(View view) {
+        if (view instanceof DayPickerView) {
+            return (DayPickerView) view;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                DayPickerView found = findDayPickerView(group.getChildAt(i));
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+}